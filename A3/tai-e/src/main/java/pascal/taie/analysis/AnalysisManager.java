@@ -0,0 +1,183 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.World;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.ConfigException;
+import pascal.taie.ir.IR;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.Timer;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Creates and executes analyses based on given analysis configurations.
+ * <p>
+ * Consecutive {@link MethodAnalysis}es in the plan are executed together
+ * as a pipeline: each method in the scope is processed by a single task,
+ * which runs all analyses of the pipeline on the IR of the method in plan
+ * order, and the tasks of different methods run in parallel. As the plan
+ * is ordered by the dependencies among analyses, every analysis still sees
+ * the results of the analyses it requires on the same IR, while the
+ * synchronization between analyses is reduced to once per pipeline.
+ */
+public class AnalysisManager {
+
+    private static final Logger logger = LogManager.getLogger(AnalysisManager.class);
+
+    private List<JClass> classScope;
+
+    private List<JMethod> methodScope;
+
+    public void execute(List<AnalysisConfig> analysisConfigs) {
+        List<MethodAnalysis> pipeline = new ArrayList<>();
+        for (AnalysisConfig config : analysisConfigs) {
+            Analysis analysis = newAnalysis(config);
+            if (analysis instanceof MethodAnalysis methodAnalysis) {
+                pipeline.add(methodAnalysis);
+            } else {
+                runMethodAnalyses(pipeline);
+                pipeline.clear();
+                Timer.runAndCount(() -> runAnalysis(analysis), config.getId());
+            }
+        }
+        runMethodAnalyses(pipeline);
+    }
+
+    private static Analysis newAnalysis(AnalysisConfig config) {
+        try {
+            Class<?> clazz = Class.forName(config.getAnalysisClass());
+            Constructor<?> ctor = clazz.getConstructor(AnalysisConfig.class);
+            return (Analysis) ctor.newInstance(config);
+        } catch (ClassNotFoundException | NoSuchMethodException |
+                 InstantiationException | IllegalAccessException |
+                 InvocationTargetException e) {
+            throw new AnalysisException("Failed to initialize " +
+                    config.getAnalysisClass(), e);
+        }
+    }
+
+    private void runAnalysis(Analysis analysis) {
+        if (analysis instanceof ProgramAnalysis programAnalysis) {
+            runProgramAnalysis(programAnalysis);
+        } else if (analysis instanceof ClassAnalysis classAnalysis) {
+            runClassAnalysis(classAnalysis);
+        } else {
+            logger.warn(analysis.getClass() + " is not an analysis");
+        }
+    }
+
+    private void runProgramAnalysis(ProgramAnalysis analysis) {
+        Object result = analysis.analyze();
+        if (result != null) {
+            World.get().storeResult(analysis.getId(), result);
+        }
+    }
+
+    private void runClassAnalysis(ClassAnalysis analysis) {
+        getClassScope().parallelStream().forEach(c -> {
+            Object result = analysis.analyze(c);
+            if (result != null) {
+                c.storeResult(analysis.getId(), result);
+            }
+        });
+    }
+
+    /**
+     * Runs a pipeline of method analyses on all methods in the scope.
+     */
+    private void runMethodAnalyses(List<MethodAnalysis> pipeline) {
+        if (pipeline.isEmpty()) {
+            return;
+        }
+        List<MethodAnalysis> analyses = List.copyOf(pipeline);
+        String ids = String.join(",", analyses.stream()
+                .map(Analysis::getId)
+                .toList());
+        Timer.runAndCount(() -> getMethodScope().parallelStream().forEach(m -> {
+            IR ir = m.getIR();
+            for (MethodAnalysis analysis : analyses) {
+                Object result = analysis.analyze(ir);
+                if (result != null) {
+                    ir.storeResult(analysis.getId(), result);
+                }
+            }
+        }), ids);
+    }
+
+    private List<JClass> getClassScope() {
+        if (classScope == null) {
+            String scope = World.get().getOptions().getScope();
+            classScope = switch (scope) {
+                case "app" -> World.get().getClassHierarchy()
+                        .applicationClasses().toList();
+                case "all" -> World.get().getClassHierarchy()
+                        .allClasses().toList();
+                case "reachable" -> throw unsupportedReachableScope();
+                default -> throw new ConfigException(
+                        "Unexpected scope option: " + scope);
+            };
+            logger.info("{} classes in scope ({}) of class analyses",
+                    classScope.size(), scope);
+        }
+        return classScope;
+    }
+
+    private List<JMethod> getMethodScope() {
+        if (methodScope == null) {
+            String scope = World.get().getOptions().getScope();
+            methodScope = switch (scope) {
+                case "app", "all" -> getClassScope()
+                        .stream()
+                        .map(JClass::getDeclaredMethods)
+                        .flatMap(Collection::stream)
+                        .filter(m -> !m.isAbstract() && !m.isNative())
+                        .toList();
+                case "reachable" -> throw unsupportedReachableScope();
+                default -> throw new ConfigException(
+                        "Unexpected scope option: " + scope);
+            };
+            logger.info("{} methods in scope ({}) of method analyses",
+                    methodScope.size(), scope);
+        }
+        return methodScope;
+    }
+
+    /**
+     * Scope "reachable" is not supported in this module, as its methods
+     * are given by the call graph, which is not part of this module.
+     */
+    private static ConfigException unsupportedReachableScope() {
+        return new ConfigException("Scope \"reachable\" requires" +
+                " the call graph, which is not available in this module");
+    }
+}
@@ -39,8 +39,11 @@ import java.io.BufferedReader;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.LinkedHashSet;
@@ -164,20 +167,35 @@ public class ResultProcessor extends ProgramAnalysis {
         processResults(methods, analyses, (m, id) -> m.getIR().getResult(id));
     }
 
+    /**
+     * Processes the results of different methods in parallel, and then
+     * collects the outputs (or mismatches) in the order of given methods,
+     * so that the outcome is deterministic.
+     */
     private void processResults(Stream<JMethod> methods, List<String> analyses,
                                 BiFunction<JMethod, String, ?> resultGetter) {
-        methods.forEach(method ->
-                analyses.forEach(id -> {
-                    switch (action) {
-                        case "dump" -> dumpResult(method, id, resultGetter);
-                        case "compare" -> compareResult(method, id, resultGetter);
-                    }
-                })
-        );
+        List<JMethod> methodList = methods.toList();
+        switch (action) {
+            case "dump" -> methodList.parallelStream()
+                    .map(method -> analyses.stream()
+                            .map(id -> dumpResult(method, id, resultGetter))
+                            .collect(Collectors.joining()))
+                    .forEachOrdered(out::print);
+            case "compare" -> methodList.parallelStream()
+                    .map(method -> analyses.stream()
+                            .flatMap(id -> compareResult(method, id, resultGetter).stream())
+                            .toList())
+                    .forEachOrdered(mismatches::addAll);
+        }
     }
 
-    private void dumpResult(JMethod method, String id,
-                            BiFunction<JMethod, String, ?> resultGetter) {
+    /**
+     * @return the dumped text of the result.
+     */
+    private String dumpResult(JMethod method, String id,
+                              BiFunction<JMethod, String, ?> resultGetter) {
+        StringWriter buffer = new StringWriter();
+        PrintWriter out = new PrintWriter(buffer);
         out.printf("-------------------- %s (%s) --------------------%n", method, id);
         Object result = resultGetter.apply(method, id);
         if (result instanceof Set) {
@@ -189,6 +207,8 @@ public class ResultProcessor extends ProgramAnalysis {
             out.println(toString(result));
         }
         out.println();
+        out.flush();
+        return buffer.toString();
     }
 
     /**
@@ -211,8 +231,12 @@ public class ResultProcessor extends ProgramAnalysis {
         return toString(stmt) + " " + toString(result.getResult(stmt));
     }
 
-    private void compareResult(JMethod method, String id,
-                               BiFunction<JMethod, String, ?> resultGetter) {
+    /**
+     * @return the mismatches between the result and the input result.
+     */
+    private List<String> compareResult(JMethod method, String id,
+                                       BiFunction<JMethod, String, ?> resultGetter) {
+        List<String> mismatches = new ArrayList<>();
         Set<String> inputResult = inputs.get(new Pair<>(method.toString(), id));
         Object result = resultGetter.apply(method, id);
         if (result instanceof Set) {
@@ -257,5 +281,6 @@ public class ResultProcessor extends ProgramAnalysis {
                             " expected: {}, given: {}",
                     id, method, inputResult, result);
         }
+        return mismatches;
     }
 }
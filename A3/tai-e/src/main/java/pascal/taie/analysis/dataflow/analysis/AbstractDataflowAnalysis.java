@@ -31,21 +31,63 @@ import pascal.taie.analysis.graph.cfg.Edge;
 import pascal.taie.config.AnalysisConfig;
 import pascal.taie.ir.IR;
 
+import javax.annotation.Nullable;
+import java.nio.file.Path;
+
 public abstract class AbstractDataflowAnalysis<Node, Fact>
         extends MethodAnalysis
         implements DataflowAnalysis<Node, Fact> {
 
     private final Solver<Node, Fact> solver;
 
+    /**
+     * On-disk cache of the results, which is enabled by option "cache-dir",
+     * or null if the cache is disabled.
+     */
+    @Nullable
+    private final DataflowResultCache<Node, Fact> cache;
+
     protected AbstractDataflowAnalysis(AnalysisConfig config) {
         super(config);
-        solver = Solver.makeSolver(this);
+        solver = Solver.makeSolver(this, getOptions().getString("solver"));
+        String cacheDir = getOptions().getString("cache-dir");
+        FactCodec<Fact> codec = cacheDir != null ? getFactCodec() : null;
+        cache = codec != null
+                ? new DataflowResultCache<>(Path.of(cacheDir), getId(),
+                        getClass().getName() + "@" + getImplementationVersion(),
+                        getOptions(), codec)
+                : null;
     }
 
     @Override
     public DataflowResult<Node, Fact> analyze(IR ir) {
         CFG<Node> cfg = ir.getResult(CFGBuilder.ID);
-        return solver.solve(cfg);
+        return cache == null ? solver.solve(cfg)
+                : cache.computeIfAbsent(cfg, solver::solve);
+    }
+
+    /**
+     * Returns the codec of the facts of this analysis, which is required
+     * to cache the results on disk. By default, the results are not cached.
+     * <p>
+     * This method is called by the constructor, so the returned codec
+     * must not rely on the fields of subclasses.
+     *
+     * @return the codec, or null if the results cannot be cached.
+     */
+    @Nullable
+    protected FactCodec<Fact> getFactCodec() {
+        return null;
+    }
+
+    /**
+     * Returns the version of the implementation of this analysis, which is
+     * a part of the keys of the cached results, so that the results cached
+     * by an older implementation are not reused. Subclasses should increase
+     * the version whenever they change the results of the analysis.
+     */
+    protected int getImplementationVersion() {
+        return 1;
     }
 
     /**
@@ -61,4 +103,13 @@ public abstract class AbstractDataflowAnalysis<Node, Fact>
     public Fact transferEdge(Edge<Node> edge, Fact nodeFact) {
         throw new UnsupportedOperationException();
     }
+
+    /**
+     * By default, the edge transfer is performed, and its result
+     * is met into the target fact.
+     */
+    @Override
+    public void meetEdgeInto(Edge<Node> edge, Fact nodeFact, Fact target) {
+        meetInto(transferEdge(edge, nodeFact), target);
+    }
 }
@@ -73,4 +73,10 @@ public interface DataflowAnalysis<Node, Fact> {
      * Edge Transfer function for this analysis.
      */
     Fact transferEdge(Edge<Node> edge, Fact nodeFact);
+
+    /**
+     * Meets the result of edge transfer on given node fact into
+     * another (target) fact.
+     */
+    void meetEdgeInto(Edge<Node> edge, Fact nodeFact, Fact target);
 }
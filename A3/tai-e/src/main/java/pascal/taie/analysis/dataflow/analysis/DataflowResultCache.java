@@ -0,0 +1,217 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.IRPrinter;
+import pascal.taie.ir.stmt.Stmt;
+
+import javax.annotation.Nullable;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * On-disk cache of the results of a data-flow analysis.
+ * <p>
+ * Each result is stored in a file named by the SHA-256 hash of the analysis
+ * ID, the class name and version of the analysis implementation, the analysis
+ * options and the textual form of the IR, thus a cached result is reused only
+ * if neither the analysis nor the analyzed method has changed. The file
+ * contains the in and out facts of the entry, the exit, and then the
+ * statements in the order of their indexes, encoded by a {@link FactCodec}.
+ * The order does not depend on the iteration order of the CFG, which may
+ * differ from run to run. Only the CFGs whose nodes are exactly the
+ * entry, the exit and the statements of the IR can be cached.
+ * <p>
+ * Failures of reading or writing the cache are not fatal: they are logged,
+ * and the result is (re)computed as if it were not cached.
+ *
+ * @param <Node> type of CFG nodes
+ * @param <Fact> type of data-flow facts
+ */
+class DataflowResultCache<Node, Fact> {
+
+    private static final Logger logger = LogManager.getLogger(DataflowResultCache.class);
+
+    /**
+     * Version of the format of cache files, which should be increased
+     * whenever the format changes.
+     */
+    private static final int VERSION = 2;
+
+    private final Path dir;
+
+    private final String analysisId;
+
+    /**
+     * Class name and version of the implementation of the analysis.
+     */
+    private final String implementation;
+
+    private final AnalysisOptions options;
+
+    private final FactCodec<Fact> codec;
+
+    DataflowResultCache(Path dir, String analysisId, String implementation,
+                        AnalysisOptions options, FactCodec<Fact> codec) {
+        this.dir = dir;
+        this.analysisId = analysisId;
+        this.implementation = implementation;
+        this.options = options;
+        this.codec = codec;
+    }
+
+    /**
+     * @return the cached result for given CFG if it is present; otherwise,
+     * computes the result by given function and stores it into the cache.
+     */
+    DataflowResult<Node, Fact> computeIfAbsent(
+            CFG<Node> cfg, Function<CFG<Node>, DataflowResult<Node, Fact>> solve) {
+        List<Node> nodes = getNodesInOrder(cfg);
+        if (nodes == null) {
+            return solve.apply(cfg);
+        }
+        Path file = dir.resolve(computeKey(cfg.getIR()));
+        DataflowResult<Node, Fact> result = load(file, cfg.getIR(), nodes);
+        if (result == null) {
+            result = solve.apply(cfg);
+            store(file, nodes, result);
+        }
+        return result;
+    }
+
+    /**
+     * @return the result stored in given file, or null if it is absent.
+     */
+    @Nullable
+    private DataflowResult<Node, Fact> load(Path file, IR ir, List<Node> nodes) {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != VERSION
+                    || in.readInt() != nodes.size()) {
+                return null;
+            }
+            DataflowResult<Node, Fact> result = new DataflowResult<>();
+            for (Node node : nodes) {
+                result.setInFact(node, codec.read(in, ir));
+                result.setOutFact(node, codec.read(in, ir));
+            }
+            return result;
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to load cached result from {}: {}", file, e);
+            return null;
+        }
+    }
+
+    /**
+     * Stores the facts of given nodes in given result into given file.
+     */
+    private void store(Path file, List<Node> nodes, DataflowResult<Node, Fact> result) {
+        try {
+            Files.createDirectories(dir);
+            // write to a temporary file first, so that concurrent readers
+            // never see partially-written results
+            Path temp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(VERSION);
+                out.writeInt(nodes.size());
+                for (Node node : nodes) {
+                    codec.write(result.getInFact(node), out);
+                    codec.write(result.getOutFact(node), out);
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("Failed to store result to {}: {}", file, e);
+        }
+    }
+
+    /**
+     * @return the entry, the exit, and then the statements of the IR
+     * in the order of their indexes, or null if they are not exactly
+     * the nodes of given CFG.
+     */
+    @Nullable
+    private List<Node> getNodesInOrder(CFG<Node> cfg) {
+        List<Stmt> stmts = cfg.getIR().getStmts();
+        if (cfg.getNumberOfNodes() != stmts.size() + 2) {
+            return null;
+        }
+        List<Node> nodes = new ArrayList<>(stmts.size() + 2);
+        nodes.add(cfg.getEntry());
+        nodes.add(cfg.getExit());
+        for (Stmt stmt : stmts) {
+            @SuppressWarnings("unchecked")
+            Node node = (Node) stmt;
+            if (!cfg.hasNode(node)) {
+                return null;
+            }
+            nodes.add(node);
+        }
+        return nodes;
+    }
+
+    private String computeKey(IR ir) {
+        ByteArrayOutputStream irText = new ByteArrayOutputStream();
+        IRPrinter.print(ir, new PrintStream(irText, true, StandardCharsets.UTF_8));
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(analysisId.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(implementation.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(options.toString().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(irText.toByteArray());
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform is required to support SHA-256
+            throw new AssertionError(e);
+        }
+    }
+}
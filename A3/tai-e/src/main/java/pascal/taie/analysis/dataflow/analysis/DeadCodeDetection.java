@@ -25,6 +25,7 @@ package pascal.taie.analysis.dataflow.analysis;
 import pascal.taie.analysis.MethodAnalysis;
 import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
 import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.analysis.constprop.SparseCPResult;
 import pascal.taie.analysis.dataflow.analysis.constprop.Value;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.dataflow.fact.SetFact;
@@ -38,9 +39,15 @@ import pascal.taie.ir.stmt.AssignStmt;
 import pascal.taie.ir.stmt.If;
 import pascal.taie.ir.stmt.Stmt;
 import pascal.taie.ir.stmt.SwitchStmt;
-import soot.jimple.IfStmt;
+import pascal.taie.util.collection.Sets;
 
-import java.util.*;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
 
 public class DeadCodeDetection extends MethodAnalysis {
 
@@ -60,61 +67,107 @@ public class DeadCodeDetection extends MethodAnalysis {
         // obtain result of live variable analysis
         DataflowResult<Stmt, SetFact<Var>> liveVars =
                 ir.getResult(LiveVariableAnalysis.ID);
-        // keep statements (dead code) sorted in the resulting set
-        Set<Stmt> deadCode = new TreeSet<>(Comparator.comparing(Stmt::getIndex)); // 红黑树实现的集合数据类型，并且提供了一个比较器来为 Stmt 排序
-        Set<Stmt> liveCode = new TreeSet<>(Comparator.comparing(Stmt::getIndex));
-        Queue<Stmt> stmtList = new LinkedList<Stmt>();
-        stmtList.add(cfg.getEntry());
-        while (!stmtList.isEmpty()) {
-            Stmt stmt = stmtList.poll();
-            if (deadCode.contains(stmt) || liveCode.contains(stmt)) continue;
-            if (stmt instanceof AssignStmt<?,?>) {
-                LValue lValue = ((AssignStmt<?, ?>) stmt).getLValue();
-                RValue rValue = ((AssignStmt<?, ?>) stmt).getRValue();
-                if (lValue instanceof Var && !liveVars.getOutFact(stmt).contains((Var) lValue) && hasNoSideEffect(rValue)) {
-                    deadCode.add(stmt);
-                }//注意这里是liveVars.getOutFact(stmt)
-                else liveCode.add(stmt);
-                stmtList.addAll(cfg.getSuccsOf(stmt));
+        // statements are identified by their indexes in the bit sets
+        BitSet reachable;
+        if (constants instanceof SparseCPResult sparse) {
+            // sparse constant propagation has already computed executability
+            // of statements, thus no traversal of CFG is needed
+            reachable = new BitSet(ir.getStmts().size());
+            for (Stmt stmt : ir) {
+                if (sparse.isExecutable(stmt)) {
+                    reachable.set(stmt.getIndex());
+                }
+            }
+        } else {
+            reachable = computeReachable(cfg, constants);
+        }
+        // collect dead code in a single pass, so that the statements
+        // are kept sorted by their indexes in the resulting set
+        Set<Stmt> deadCode = Sets.newHybridOrderedSet();
+        for (Stmt stmt : ir) {
+            if (!reachable.get(stmt.getIndex())
+                    || isDeadAssignment(stmt, liveVars)) {
+                deadCode.add(stmt);
+            }
+        }
+        return deadCode;
+    }
+
+    /**
+     * Traverses the CFG from the entry, skipping the branches whose
+     * conditions are constant and thus are never taken.
+     *
+     * @return indexes of the reachable statements.
+     */
+    private static BitSet computeReachable(
+            CFG<Stmt> cfg, DataflowResult<Stmt, CPFact> constants) {
+        BitSet reachable = new BitSet(cfg.getIR().getStmts().size());
+        Deque<Stmt> workList = new ArrayDeque<>();
+        workList.add(cfg.getEntry());
+        while (!workList.isEmpty()) {
+            Stmt stmt = workList.poll();
+            for (Stmt succ : getReachableSuccsOf(cfg, stmt, constants)) {
+                // the exit node, whose index is -1, has no successors
+                if (!cfg.isExit(succ) && !reachable.get(succ.getIndex())) {
+                    reachable.set(succ.getIndex());
+                    workList.add(succ);
+                }
             }
-            else if (stmt instanceof If) {
-                liveCode.add(stmt);
-                Value conditionValue = ConstantPropagation.evaluate(((If) stmt).getCondition(), constants.getInFact(stmt));
-                if (conditionValue.isConstant()) {
-                    Edge.Kind edgeKind = (conditionValue.getConstant() == 0) ? Edge.Kind.IF_FALSE : Edge.Kind.IF_TRUE;
-                    for (Edge<Stmt> edge : cfg.getOutEdgesOf(stmt)) {
-                        if (edge.getKind() == edgeKind) stmtList.add(edge.getTarget());
-                    }
+        }
+        return reachable;
+    }
+
+    /**
+     * @return the successors of given statement which may be reached
+     * according to the result of constant propagation.
+     */
+    private static Collection<Stmt> getReachableSuccsOf(
+            CFG<Stmt> cfg, Stmt stmt, DataflowResult<Stmt, CPFact> constants) {
+        Value condition;
+        if (stmt instanceof If ifStmt) {
+            condition = ConstantPropagation.evaluate(
+                    ifStmt.getCondition(), constants.getInFact(stmt));
+        } else if (stmt instanceof SwitchStmt switchStmt) {
+            condition = ConstantPropagation.evaluate(
+                    switchStmt.getVar(), constants.getInFact(stmt));
+        } else {
+            return cfg.getSuccsOf(stmt);
+        }
+        if (!condition.isConstant()) {
+            return cfg.getSuccsOf(stmt);
+        }
+        int c = condition.getConstant();
+        List<Stmt> succs = new ArrayList<>(1);
+        if (stmt instanceof If) {
+            Edge.Kind kind = c == 0 ? Edge.Kind.IF_FALSE : Edge.Kind.IF_TRUE;
+            for (Edge<Stmt> edge : cfg.getOutEdgesOf(stmt)) {
+                if (edge.getKind() == kind) {
+                    succs.add(edge.getTarget());
                 }
-                else stmtList.addAll(cfg.getSuccsOf(stmt));
             }
-            else if (stmt instanceof SwitchStmt) {
-                liveCode.add(stmt);
-                Value conditionValue = ConstantPropagation.evaluate(((SwitchStmt) stmt).getVar(), constants.getInFact(stmt));
-                if (conditionValue.isConstant()) {
-                    boolean isFound = false;
-                    for (Edge<Stmt> edge : cfg.getOutEdgesOf(stmt)) {
-                        if (edge.getKind() == Edge.Kind.SWITCH_CASE && edge.getCaseValue() == conditionValue.getConstant()) {
-                            stmtList.add(edge.getTarget());
-                            isFound = true;
-                        }
-                    }
-                    if (!isFound) stmtList.add(((SwitchStmt) stmt).getDefaultTarget());
+        } else {
+            for (Edge<Stmt> edge : cfg.getOutEdgesOf(stmt)) {
+                if (edge.isSwitchCase() && edge.getCaseValue() == c) {
+                    succs.add(edge.getTarget());
                 }
-                else stmtList.addAll(cfg.getSuccsOf(stmt));
             }
-            else {
-                liveCode.add(stmt);
-                stmtList.addAll(cfg.getSuccsOf(stmt));
+            if (succs.isEmpty()) {
+                succs.add(((SwitchStmt) stmt).getDefaultTarget());
             }
         }
-        for (Stmt stmt : cfg.getIR().getStmts()) {
-            if (!liveCode.contains(stmt)) deadCode.add(stmt);
-        }
-
+        return succs;
+    }
 
-        // Your task is to recognize dead code in ir and add it to deadCode
-        return deadCode;
+    /**
+     * @return true if given statement assigns a variable which is not live
+     * afterwards, and the assignment has no side effect.
+     */
+    private static boolean isDeadAssignment(
+            Stmt stmt, DataflowResult<Stmt, SetFact<Var>> liveVars) {
+        return stmt instanceof AssignStmt<?, ?> assign
+                && assign.getLValue() instanceof Var var
+                && !liveVars.getOutFact(stmt).contains(var)
+                && hasNoSideEffect(assign.getRValue());
     }
 
     /**
@@ -0,0 +1,53 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis;
+
+/**
+ * Template interface for data-flow analysis whose facts can be updated
+ * in place. Solvers take advantage of this interface to reuse the fact
+ * objects of each node across iterations, instead of allocating new facts
+ * every time a node is visited.
+ *
+ * @param <Node> type of CFG nodes
+ * @param <Fact> type of data-flow facts
+ */
+public interface InPlaceDataflowAnalysis<Node, Fact>
+        extends DataflowAnalysis<Node, Fact> {
+
+    /**
+     * Resets given fact to the initial fact in place, i.e., after the call,
+     * the fact equals to the one returned by {@link #newInitialFact()}.
+     */
+    void resetFact(Fact fact);
+
+    /**
+     * Node Transfer function which is given a scratch fact.
+     * The scratch fact is owned by the solver and shared by all nodes,
+     * so the function can use it as temporary storage instead of allocating
+     * new facts. The content of the scratch fact is unspecified on entry,
+     * and the function may modify it arbitrarily.
+     *
+     * @return true if the transfer changed the out (in) fact, otherwise false.
+     */
+    boolean transferNode(Node node, Fact in, Fact out, Fact scratch);
+}
@@ -23,6 +23,7 @@
 package pascal.taie.analysis.dataflow.analysis;
 
 import pascal.taie.analysis.dataflow.fact.SetFact;
+import pascal.taie.analysis.dataflow.fact.VarBitSetFact;
 import pascal.taie.analysis.graph.cfg.CFG;
 import pascal.taie.config.AnalysisConfig;
 import pascal.taie.ir.exp.FieldAccess;
@@ -34,9 +35,12 @@ import java.util.Optional;
 
 /**
  * Implementation of classic live variable analysis.
+ * The facts of this analysis are {@link VarBitSetFact}s, so that the meet
+ * and transfer operations are performed on bit sets.
  */
 public class LiveVariableAnalysis extends
-        AbstractDataflowAnalysis<Stmt, SetFact<Var>> {
+        AbstractDataflowAnalysis<Stmt, SetFact<Var>>
+        implements InPlaceDataflowAnalysis<Stmt, SetFact<Var>> {
 
     public static final String ID = "livevar";
 
@@ -51,12 +55,12 @@ public class LiveVariableAnalysis extends
 
     @Override
     public SetFact<Var> newBoundaryFact(CFG<Stmt> cfg) {
-        return new SetFact<>();
+        return new VarBitSetFact();
     }
 
     @Override
     public SetFact<Var> newInitialFact() {
-        return new SetFact<>();
+        return new VarBitSetFact();
     }
 
     @Override
@@ -64,24 +68,41 @@ public class LiveVariableAnalysis extends
         target.union(fact); // OUT[B] = Union_succ(IN[S])
     }
 
+    @Override
+    protected FactCodec<SetFact<Var>> getFactCodec() {
+        return new VarSetFactCodec();
+    }
+
+    @Override
+    public void resetFact(SetFact<Var> fact) {
+        fact.clear();
+    }
+
     @Override
     public boolean transferNode(Stmt stmt, SetFact<Var> in, SetFact<Var> out) {
+        return transferNode(stmt, in, out, newInitialFact());
+    }
+
+    @Override
+    public boolean transferNode(Stmt stmt, SetFact<Var> in, SetFact<Var> out,
+                                SetFact<Var> scratch) {
         // IN[B] = use_B Union (OUT[B] - def_B)
-        SetFact<Var> res = new SetFact<Var>();
-        res.set(out);
+        scratch.set(out);
         Optional<LValue> def = stmt.getDef();
         if (def.isPresent()) {
             LValue lValue = def.get();
-            if (lValue instanceof Var)  res.remove((Var) lValue);
+            if (lValue instanceof Var)  scratch.remove((Var) lValue);
             // LValue not Var? remove non-exist Var?
         }
         for (RValue rValue : stmt.getUses()) {
             if (rValue instanceof Var) {
-                res.add((Var) rValue);
+                scratch.add((Var) rValue);
             }
         }
-        boolean isSame = in.equals(res);
-        in.set(res);
-        return !isSame; //??
+        if (in.equals(scratch)) {
+            return false;
+        }
+        in.set(scratch);
+        return true;
     }
 }
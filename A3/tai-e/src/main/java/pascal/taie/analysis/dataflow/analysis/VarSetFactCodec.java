@@ -0,0 +1,58 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis;
+
+import pascal.taie.analysis.dataflow.fact.SetFact;
+import pascal.taie.analysis.dataflow.fact.VarBitSetFact;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Codec of {@link SetFact}s of variables, which encodes each variable
+ * by its index. The decoded facts are {@link VarBitSetFact}s.
+ */
+class VarSetFactCodec implements FactCodec<SetFact<Var>> {
+
+    @Override
+    public void write(SetFact<Var> fact, DataOutput out) throws IOException {
+        out.writeInt(fact.size());
+        for (Var var : (Iterable<Var>) fact.stream()::iterator) {
+            out.writeInt(var.getIndex());
+        }
+    }
+
+    @Override
+    public SetFact<Var> read(DataInput in, IR ir) throws IOException {
+        List<Var> vars = ir.getVars();
+        SetFact<Var> fact = new VarBitSetFact();
+        for (int i = in.readInt(); i > 0; --i) {
+            fact.add(vars.get(in.readInt()));
+        }
+        return fact;
+    }
+}
@@ -25,6 +25,7 @@ package pascal.taie.analysis.dataflow.analysis.constprop;
 import pascal.taie.analysis.dataflow.fact.MapFact;
 import pascal.taie.ir.exp.Var;
 
+import javax.annotation.Nullable;
 import java.util.Collections;
 import java.util.Map;
 
@@ -37,6 +38,10 @@ import java.util.Map;
  * it represents that the lattice value of the variable is UNDEF;
  * moreover, if we set the lattice value of a variable to UNDEF,
  * it effectively removes the variable from the CPFact.
+ * <p>
+ * The mappings are held by a {@link PackedValueMap}, which stores the
+ * values in an array indexed by {@link Var#getIndex()}, thus all variables
+ * in a CPFact must belong to the same method.
  */
 public class CPFact extends MapFact<Var, Value> {
 
@@ -48,6 +53,11 @@ public class CPFact extends MapFact<Var, Value> {
         super(map);
     }
 
+    @Override
+    protected Map<Var, Value> newMap(Map<Var, Value> map) {
+        return new PackedValueMap(map);
+    }
+
     /**
      * @return the value of given variable in this fact,
      * or UNDEF the variable is absent in this fact.
@@ -69,6 +79,52 @@ public class CPFact extends MapFact<Var, Value> {
         }
     }
 
+    @Override
+    public boolean copyFrom(MapFact<Var, Value> fact) {
+        if (fact instanceof CPFact cpFact) {
+            return copyFromExcept(cpFact, null);
+        }
+        return super.copyFrom(fact);
+    }
+
+    /**
+     * Copies the content from given fact to this fact,
+     * except the value of given variable.
+     *
+     * @return true if this fact changed as a result of the call, otherwise false.
+     */
+    boolean copyFromExcept(CPFact fact, @Nullable Var except) {
+        return packed().copyFrom(fact.packed(),
+                except != null ? except.getIndex() : -1);
+    }
+
+    /**
+     * Meets given fact into this fact.
+     *
+     * @return true if this fact changed as a result of the call, otherwise false.
+     * @see ConstantPropagation#meetValue(Value, Value)
+     */
+    boolean meet(CPFact fact) {
+        return packed().meet(fact.packed());
+    }
+
+    /**
+     * Meets given fact, with the value of given variable replaced by
+     * given value, into this fact. The replaced fact is not materialized.
+     *
+     * @return true if this fact changed as a result of the call, otherwise false.
+     */
+    boolean meetRefined(CPFact fact, Var var, Value value) {
+        boolean changed = packed().meet(fact.packed(), var.getIndex());
+        Value old = get(var);
+        return changed | update(var, old.isUndef() || old.equals(value)
+                ? value : Value.getNAC());
+    }
+
+    private PackedValueMap packed() {
+        return (PackedValueMap) map;
+    }
+
     @Override
     public CPFact copy() {
         return new CPFact(this.map);
@@ -0,0 +1,68 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import pascal.taie.analysis.dataflow.analysis.FactCodec;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Codec of {@link CPFact}s. Each variable-value mapping is encoded as
+ * the index of the variable, followed by a flag of NAC, and the constant
+ * if the value is not NAC. UNDEF values are absent in CPFacts,
+ * thus they need no encoding.
+ */
+class CPFactCodec implements FactCodec<CPFact> {
+
+    @Override
+    public void write(CPFact fact, DataOutput out) throws IOException {
+        out.writeInt(fact.keySet().size());
+        for (Var var : fact.keySet()) {
+            Value value = fact.get(var);
+            out.writeInt(var.getIndex());
+            out.writeBoolean(value.isNAC());
+            if (value.isConstant()) {
+                out.writeInt(value.getConstant());
+            }
+        }
+    }
+
+    @Override
+    public CPFact read(DataInput in, IR ir) throws IOException {
+        List<Var> vars = ir.getVars();
+        CPFact fact = new CPFact();
+        for (int i = in.readInt(); i > 0; --i) {
+            Var var = vars.get(in.readInt());
+            Value value = in.readBoolean()
+                    ? Value.getNAC()
+                    : Value.makeConstant(in.readInt());
+            fact.update(var, value);
+        }
+        return fact;
+    }
+}
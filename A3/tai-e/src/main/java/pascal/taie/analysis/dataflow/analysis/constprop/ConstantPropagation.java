@@ -23,25 +23,61 @@
 package pascal.taie.analysis.dataflow.analysis.constprop;
 
 import pascal.taie.analysis.dataflow.analysis.AbstractDataflowAnalysis;
+import pascal.taie.analysis.dataflow.analysis.FactCodec;
+import pascal.taie.analysis.dataflow.analysis.InPlaceDataflowAnalysis;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.analysis.graph.cfg.Edge;
 import pascal.taie.config.AnalysisConfig;
 import pascal.taie.ir.IR;
 import pascal.taie.ir.exp.*;
 import pascal.taie.ir.stmt.DefinitionStmt;
+import pascal.taie.ir.stmt.If;
 import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.SwitchStmt;
 import pascal.taie.language.type.PrimitiveType;
 import pascal.taie.language.type.Type;
 import pascal.taie.util.AnalysisException;
 
+import javax.annotation.Nullable;
 import java.util.List;
+import java.util.function.Function;
 
 public class ConstantPropagation extends
-        AbstractDataflowAnalysis<Stmt, CPFact> {
+        AbstractDataflowAnalysis<Stmt, CPFact>
+        implements InPlaceDataflowAnalysis<Stmt, CPFact> {
 
     public static final String ID = "constprop";
 
+    /**
+     * Whether to use the sparse (SCCP-style) solver.
+     */
+    private final boolean sparse;
+
+    /**
+     * Whether to refine the facts along the edges of conditional branches.
+     */
+    private final boolean edgeRefine;
+
     public ConstantPropagation(AnalysisConfig config) {
         super(config);
+        sparse = getOptions().getBooleanOrDefault("sparse", false);
+        edgeRefine = getOptions().getBooleanOrDefault("edge-refine", false);
+    }
+
+    @Override
+    public DataflowResult<Stmt, CPFact> analyze(IR ir) {
+        if (sparse) {
+            CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+            return new SparseSolver(this, cfg).solve();
+        }
+        return super.analyze(ir);
+    }
+
+    @Override
+    protected FactCodec<CPFact> getFactCodec() {
+        return new CPFactCodec();
     }
 
     @Override
@@ -66,9 +102,9 @@ public class ConstantPropagation extends
 
     @Override
     public void meetInto(CPFact fact, CPFact target) {
-        for (Var var : fact.keySet()) {
-            target.update(var, meetValue(fact.get(var), target.get(var)));
-        }
+        // meets the packed values, which is equivalent to
+        // meetValue(fact.get(var), target.get(var)) for each var in fact
+        target.meet(fact);
     }
 
     /**
@@ -85,26 +121,122 @@ public class ConstantPropagation extends
         return Value.getUndef(); // ??
     }
 
+    @Override
+    public void resetFact(CPFact fact) {
+        fact.clear();
+    }
+
     @Override
     public boolean transferNode(Stmt stmt, CPFact in, CPFact out) {
         //  OUT[B] = gen_B Union (IN[B] - {(x, _)})
         if (!(stmt instanceof DefinitionStmt<?,?>)) return out.copyFrom(in);
-        //DefinitionStmt<?, ?> definitionStmt = (DefinitionStmt<?, ?>) stmt;
         LValue lValue = ((DefinitionStmt<?,?>) stmt).getLValue();
         RValue rValue = ((DefinitionStmt<?,?>) stmt).getRValue();
         if (lValue instanceof Var && canHoldInt((Var) lValue)) {
-            CPFact out_copy = in.copy();
-            out_copy.update((Var) lValue, evaluate(rValue, in));
-//            if (in.keySet().contains((Var) lValue) && in.get((Var) lValue).isConstant() && out_copy.keySet().contains((Var) lValue) && out_copy.get((Var) lValue).isConstant()) {
-//                if (in.get((Var) lValue).getConstant() != out_copy.get((Var) lValue).getConstant()) {
-//                    out_copy.update((Var) lValue, Value.getNAC());
-//                }
-//            } /* no need */
-            return out.copyFrom(out_copy);
+            Var def = (Var) lValue;
+            // update OUT directly instead of on a copy of IN;
+            // an UNDEF value leaves the old value of def untouched
+            boolean changed = out.copyFromExcept(in, def);
+            Value value = evaluate(rValue, in);
+            if (!value.isUndef()) {
+                changed |= out.update(def, value);
+            }
+            return changed;
         }
         return out.copyFrom(in); // Other situations: like float type, "o.f = v"
     }
 
+    @Override
+    public boolean transferNode(Stmt stmt, CPFact in, CPFact out, CPFact scratch) {
+        // constant propagation updates OUT in place without temporary facts
+        return transferNode(stmt, in, out);
+    }
+
+    @Override
+    public boolean needTransferEdge(Edge<Stmt> edge) {
+        if (!edgeRefine) {
+            return false;
+        }
+        return switch (edge.getKind()) {
+            case IF_TRUE, IF_FALSE -> {
+                ConditionExp.Op op = ((If) edge.getSource()).getCondition().getOperator();
+                yield op == ConditionExp.Op.EQ || op == ConditionExp.Op.NE;
+            }
+            case SWITCH_CASE -> true;
+            default -> false;
+        };
+    }
+
+    /**
+     * Refines the fact along the edges where a variable must equal to
+     * a constant, i.e., the edges of {@code x == c} being true,
+     * {@code x != c} being false, and the case {@code c} of switch on x.
+     * Only the variables which are NAC are refined. If nothing can
+     * be refined, the node fact itself is returned.
+     */
+    @Override
+    public CPFact transferEdge(Edge<Stmt> edge, CPFact nodeFact) {
+        Refinement refinement = refine(edge, nodeFact);
+        if (refinement == null) {
+            return nodeFact;
+        }
+        CPFact fact = nodeFact.copy();
+        fact.update(refinement.var(), refinement.value());
+        return fact;
+    }
+
+    /**
+     * Meets the refined fact into the target fact without materializing
+     * it, so that refining a fact along an edge costs no copy of the fact.
+     */
+    @Override
+    public void meetEdgeInto(Edge<Stmt> edge, CPFact nodeFact, CPFact target) {
+        Refinement refinement = refine(edge, nodeFact);
+        if (refinement == null) {
+            target.meet(nodeFact);
+        } else {
+            target.meetRefined(nodeFact, refinement.var(), refinement.value());
+        }
+    }
+
+    /**
+     * Refined value of a variable along an edge.
+     */
+    private record Refinement(Var var, Value value) {
+    }
+
+    /**
+     * @return the refinement of given fact along given edge, or null
+     * if nothing can be refined.
+     */
+    @Nullable
+    private static Refinement refine(Edge<Stmt> edge, CPFact fact) {
+        if (edge.getKind() == Edge.Kind.SWITCH_CASE) {
+            Var var = ((SwitchStmt) edge.getSource()).getVar();
+            return refine(fact, var, Value.makeConstant(edge.getCaseValue()));
+        }
+        ConditionExp cond = ((If) edge.getSource()).getCondition();
+        boolean equal = (cond.getOperator() == ConditionExp.Op.EQ)
+                == (edge.getKind() == Edge.Kind.IF_TRUE);
+        if (equal) {
+            Var op1 = cond.getOperand1();
+            Var op2 = cond.getOperand2();
+            Value v1 = fact.get(op1);
+            Value v2 = fact.get(op2);
+            if (v1.isNAC() && v2.isConstant()) {
+                return refine(fact, op1, v2);
+            } else if (v1.isConstant() && v2.isNAC()) {
+                return refine(fact, op2, v1);
+            }
+        }
+        return null;
+    }
+
+    @Nullable
+    private static Refinement refine(CPFact fact, Var var, Value value) {
+        return fact.get(var).isNAC() ? new Refinement(var, value) : null;
+    }
+
     /**
      * @return true if the given variable can hold integer value, otherwise false.
      */
@@ -131,12 +263,24 @@ public class ConstantPropagation extends
      * @return the resulting {@link Value}
      */
     public static Value evaluate(Exp exp, CPFact in) {
-        if (exp instanceof Var) return in.get((Var) exp);
+        return evaluate(exp, in::get);
+    }
+
+    /**
+     * Evaluates the {@link Value} of given expression.
+     *
+     * @param exp     the expression to be evaluated
+     * @param valueOf the function which gives the values of variables
+     *                before the statement
+     * @return the resulting {@link Value}
+     */
+    static Value evaluate(Exp exp, Function<Var, Value> valueOf) {
+        if (exp instanceof Var) return valueOf.apply((Var) exp);
         if (exp instanceof IntLiteral) return Value.makeConstant(((IntLiteral) exp).getValue());
         if (exp instanceof BinaryExp) {
             if (exp instanceof ArithmeticExp) {
                 Var op1 = ((ArithmeticExp) exp).getOperand1(), op2 = ((ArithmeticExp) exp).getOperand2();
-                Value op1Value = in.get(op1), op2Value = in.get(op2);
+                Value op1Value = valueOf.apply(op1), op2Value = valueOf.apply(op2);
                 ArithmeticExp.Op op = ((ArithmeticExp) exp).getOperator();
                 switch (op) {
                     case ADD -> {
@@ -170,7 +314,7 @@ public class ConstantPropagation extends
             }
             else if (exp instanceof ConditionExp) {
                 Var op1 = ((ConditionExp) exp).getOperand1(), op2 = ((ConditionExp) exp).getOperand2();
-                Value op1Value = in.get(op1), op2Value = in.get(op2);
+                Value op1Value = valueOf.apply(op1), op2Value = valueOf.apply(op2);
                 ConditionExp.Op op = ((ConditionExp) exp).getOperator();
                 switch (op) {
                     case EQ -> {
@@ -207,7 +351,7 @@ public class ConstantPropagation extends
             }
             else if (exp instanceof ShiftExp) {
                 Var op1 = ((ShiftExp) exp).getOperand1(), op2 = ((ShiftExp) exp).getOperand2();
-                Value op1Value = in.get(op1), op2Value = in.get(op2);
+                Value op1Value = valueOf.apply(op1), op2Value = valueOf.apply(op2);
                 ShiftExp.Op op = ((ShiftExp) exp).getOperator();
                 switch (op) {
                     case SHL -> {
@@ -229,7 +373,7 @@ public class ConstantPropagation extends
             }
             else if (exp instanceof BitwiseExp) {
                 Var op1 = ((BitwiseExp) exp).getOperand1(), op2 = ((BitwiseExp) exp).getOperand2();
-                Value op1Value = in.get(op1), op2Value = in.get(op2);
+                Value op1Value = valueOf.apply(op1), op2Value = valueOf.apply(op2);
                 BitwiseExp.Op op = ((BitwiseExp) exp).getOperator();
                 switch (op) {
                     case OR -> {
@@ -0,0 +1,344 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import pascal.taie.ir.exp.Var;
+import pascal.taie.util.AnalysisException;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.IntFunction;
+
+/**
+ * Map from {@link Var}s of the same method to their lattice {@link Value}s,
+ * which is backed by an array indexed by {@link Var#getIndex()}.
+ * Each value is packed into a long, whose high 32 bits hold the kind
+ * of the value, and low 32 bits hold the constant (if any).
+ * UNDEF is packed as 0, which also represents absence of the variable.
+ */
+class PackedValueMap extends AbstractMap<Var, Value> {
+
+    private static final long[] EMPTY = new long[0];
+
+    private static final long CONSTANT = 1L << 32;
+
+    private static final long NAC = 2L << 32;
+
+    /**
+     * The variables of the method which the keys of this map belong to.
+     * It is set when the first mapping is added to this map.
+     */
+    private List<Var> vars;
+
+    private long[] values = EMPTY;
+
+    private int size = 0;
+
+    PackedValueMap(Map<Var, Value> map) {
+        if (map instanceof PackedValueMap other) {
+            vars = other.vars;
+            values = other.values.length == 0 ? EMPTY : other.values.clone();
+            size = other.size;
+        } else {
+            putAll(map);
+        }
+    }
+
+    private static long pack(Value value) {
+        if (value.isConstant()) {
+            return CONSTANT | (value.getConstant() & 0xFFFFFFFFL);
+        } else if (value.isNAC()) {
+            return NAC;
+        } else {
+            return 0;
+        }
+    }
+
+    private static Value unpack(long value) {
+        if (value == NAC) {
+            return Value.getNAC();
+        } else if (value == 0) {
+            return Value.getUndef();
+        } else {
+            return Value.makeConstant((int) value);
+        }
+    }
+
+    /**
+     * @return index of given key in {@link #values},
+     * or -1 if the key is absent in this map.
+     */
+    private int indexOf(Object key) {
+        if (key instanceof Var var) {
+            int i = var.getIndex();
+            if (i < values.length && values[i] != 0 && vars.get(i) == var) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public Value get(Object key) {
+        int i = indexOf(key);
+        return i >= 0 ? unpack(values[i]) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    public Value put(Var key, Value value) {
+        if (value.isUndef()) {
+            return remove(key);
+        }
+        setVars(key);
+        int i = key.getIndex();
+        long old = values[i];
+        values[i] = pack(value);
+        if (old == 0) {
+            ++size;
+            return null;
+        }
+        return unpack(old);
+    }
+
+    @Override
+    public Value remove(Object key) {
+        int i = indexOf(key);
+        if (i < 0) {
+            return null;
+        }
+        long old = values[i];
+        values[i] = 0;
+        --size;
+        return unpack(old);
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(values, 0);
+        size = 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super Var, ? super Value> action) {
+        for (int i = 0; i < values.length; ++i) {
+            if (values[i] != 0) {
+                action.accept(vars.get(i), unpack(values[i]));
+            }
+        }
+    }
+
+    /**
+     * Copies the mappings in given map to this map, except the mapping
+     * of the variable at given index.
+     *
+     * @return true if this map changed as a result of the call, otherwise false.
+     */
+    boolean copyFrom(PackedValueMap other, int except) {
+        if (other.size == 0) {
+            return false;
+        }
+        setVars(other.vars);
+        boolean changed = false;
+        long[] src = other.values;
+        for (int i = 0; i < src.length; ++i) {
+            long v = src[i];
+            if (v != 0 && v != values[i] && i != except) {
+                if (values[i] == 0) {
+                    ++size;
+                }
+                values[i] = v;
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Meets the values in given map into this map. The meet follows
+     * {@link ConstantPropagation#meetValue(Value, Value)}, i.e.,
+     * UNDEF is the top, NAC is the bottom, and different constants meet to NAC.
+     *
+     * @return true if this map changed as a result of the call, otherwise false.
+     */
+    boolean meet(PackedValueMap other) {
+        return meet(other, -1);
+    }
+
+    /**
+     * Meets the values in given map into this map, except the value
+     * of the variable at given index.
+     *
+     * @return true if this map changed as a result of the call, otherwise false.
+     */
+    boolean meet(PackedValueMap other, int except) {
+        if (other.size == 0) {
+            return false;
+        }
+        setVars(other.vars);
+        boolean changed = false;
+        long[] src = other.values;
+        for (int i = 0; i < src.length; ++i) {
+            long v = src[i];
+            long old = values[i];
+            if (v != 0 && v != old && i != except) {
+                long result = old == 0 ? v : NAC;
+                if (result != old) {
+                    if (old == 0) {
+                        ++size;
+                    }
+                    values[i] = result;
+                    changed = true;
+                }
+            }
+        }
+        return changed;
+    }
+
+    private void setVars(Var var) {
+        if (vars == null) {
+            setVars(var.getMethod().getIR().getVars());
+        } else if (var.getIndex() >= vars.size()
+                || vars.get(var.getIndex()) != var) {
+            throw new AnalysisException(var + " does not belong to the method"
+                    + " of other variables in this map");
+        }
+    }
+
+    private void setVars(List<Var> vars) {
+        if (this.vars == null) {
+            this.vars = vars;
+            this.values = new long[vars.size()];
+        } else if (this.vars != vars) {
+            throw new AnalysisException("Cannot mix variables of different methods");
+        }
+    }
+
+    @Override
+    public Set<Var> keySet() {
+        return new View<>(i -> vars.get(i)) {
+            @Override
+            public boolean contains(Object o) {
+                return containsKey(o);
+            }
+        };
+    }
+
+    @Override
+    public Set<Entry<Var, Value>> entrySet() {
+        return new View<>(i -> new SimpleImmutableEntry<>(vars.get(i), unpack(values[i])));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o instanceof PackedValueMap other) {
+            if (size != other.size) {
+                return false;
+            }
+            // the arrays of empty maps may differ in length
+            return size == 0 || Arrays.equals(values, other.values);
+        }
+        return super.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        // keep consistent with other Map implementations
+        return super.hashCode();
+    }
+
+    /**
+     * View of the non-UNDEF slots of this map.
+     */
+    private class View<E> extends AbstractSet<E> {
+
+        private final IntFunction<E> getter;
+
+        private View(IntFunction<E> getter) {
+            this.getter = getter;
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            return new Iterator<>() {
+
+                private int next = advance(0);
+
+                private int last = -1;
+
+                private int advance(int i) {
+                    while (i < values.length && values[i] == 0) {
+                        ++i;
+                    }
+                    return i;
+                }
+
+                @Override
+                public boolean hasNext() {
+                    return next < values.length;
+                }
+
+                @Override
+                public E next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    last = next;
+                    next = advance(next + 1);
+                    return getter.apply(last);
+                }
+
+                @Override
+                public void remove() {
+                    if (last < 0) {
+                        throw new IllegalStateException();
+                    }
+                    values[last] = 0;
+                    --size;
+                    last = -1;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
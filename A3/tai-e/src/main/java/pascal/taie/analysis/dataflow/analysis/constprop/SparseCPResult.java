@@ -0,0 +1,206 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.util.collection.Sets;
+
+import java.util.Set;
+
+/**
+ * Result of sparse constant propagation. The executability of nodes and
+ * edges is computed by the solver, while the facts of the nodes are derived
+ * from the values of the definitions when they are first queried, so that
+ * clients which only need the executability (e.g., dead code detection)
+ * never pay for the facts.
+ */
+public class SparseCPResult extends DataflowResult<Stmt, CPFact> {
+
+    private final Set<Stmt> executableNodes;
+
+    private final Set<Edge<Stmt>> executableEdges;
+
+    private final Definitions definitions;
+
+    SparseCPResult(Set<Stmt> executableNodes,
+                   Set<Edge<Stmt>> executableEdges,
+                   Definitions definitions) {
+        this.executableNodes = executableNodes;
+        this.executableEdges = executableEdges;
+        this.definitions = definitions;
+    }
+
+    /**
+     * @return true if given node may be executed, otherwise false.
+     */
+    public boolean isExecutable(Stmt node) {
+        return executableNodes.contains(node);
+    }
+
+    /**
+     * @return true if given edge may be executed, otherwise false.
+     */
+    public boolean isExecutable(Edge<Stmt> edge) {
+        return executableEdges.contains(edge);
+    }
+
+    /**
+     * @return the flowing-in fact of given node, which is empty
+     * if the node is not executable.
+     */
+    @Override
+    public CPFact getInFact(Stmt node) {
+        CPFact in = super.getInFact(node);
+        if (in == null) {
+            in = isExecutable(node) ? definitions.getInFact(node) : new CPFact();
+            setInFact(node, in);
+        }
+        return in;
+    }
+
+    /**
+     * @return the flowing-out fact of given node, which is empty
+     * if the node is not executable.
+     */
+    @Override
+    public CPFact getOutFact(Stmt node) {
+        CPFact out = super.getOutFact(node);
+        if (out == null) {
+            out = isExecutable(node)
+                    ? definitions.getOutFact(node, getInFact(node))
+                    : new CPFact();
+            setOutFact(node, out);
+        }
+        return out;
+    }
+
+    /**
+     * Definitions in SSA form computed by {@link SparseSolver}, and their
+     * final values, from which the facts of the nodes are derived.
+     * <p>
+     * The definition of a variable reaching the entry of a node is the phi
+     * of the variable at the node if it is present; otherwise, it is the
+     * definition reaching the exit of the immediate dominator of the node.
+     * Thus, the in fact of a node is obtained by walking up the dominator
+     * tree from the node, and taking the first definition of each variable
+     * on the way.
+     */
+    static class Definitions {
+
+        private final CFG<Stmt> cfg;
+
+        private final int nStmts;
+
+        /**
+         * The arrays are described in {@link SparseSolver}.
+         */
+        private final int[] idom;
+
+        private final int[] defOfNode;
+
+        private final int nParams;
+
+        private final int[] phiStart;
+
+        private final int[] phis;
+
+        private final Var[] defVars;
+
+        private final Value[] defValues;
+
+        Definitions(CFG<Stmt> cfg, int[] idom, int[] defOfNode, int nParams,
+                    int[] phiStart, int[] phis, Var[] defVars, Value[] defValues) {
+            this.cfg = cfg;
+            this.nStmts = cfg.getIR().getStmts().size();
+            this.idom = idom;
+            this.defOfNode = defOfNode;
+            this.nParams = nParams;
+            this.phiStart = phiStart;
+            this.phis = phis;
+            this.defVars = defVars;
+            this.defValues = defValues;
+        }
+
+        private int id(Stmt node) {
+            if (cfg.isEntry(node)) {
+                return nStmts;
+            } else if (cfg.isExit(node)) {
+                return nStmts + 1;
+            } else {
+                return node.getIndex();
+            }
+        }
+
+        private CPFact getInFact(Stmt node) {
+            CPFact in = new CPFact();
+            int n = id(node);
+            if (idom[n] < 0) { // unreachable from the entry
+                return in;
+            }
+            Set<Var> found = Sets.newHybridSet();
+            addPhis(n, in, found);
+            while (n != nStmts) {
+                n = idom[n];
+                // the definition of a node follows the phis at the node
+                if (n == nStmts) {
+                    for (int d = 0; d < nParams; ++d) {
+                        add(d, in, found);
+                    }
+                } else if (n < nStmts && defOfNode[n] >= 0) {
+                    add(defOfNode[n], in, found);
+                }
+                addPhis(n, in, found);
+            }
+            return in;
+        }
+
+        private CPFact getOutFact(Stmt node, CPFact in) {
+            CPFact out = in.copy();
+            int n = id(node);
+            if (n == nStmts) {
+                for (int d = 0; d < nParams; ++d) {
+                    out.update(defVars[d], defValues[d]);
+                }
+            } else if (n < nStmts && defOfNode[n] >= 0) {
+                out.update(defVars[defOfNode[n]], defValues[defOfNode[n]]);
+            }
+            return out;
+        }
+
+        private void addPhis(int n, CPFact fact, Set<Var> found) {
+            for (int i = phiStart[n]; i < phiStart[n + 1]; ++i) {
+                add(phis[i], fact, found);
+            }
+        }
+
+        private void add(int d, CPFact fact, Set<Var> found) {
+            if (found.add(defVars[d])) {
+                fact.update(defVars[d], defValues[d]);
+            }
+        }
+    }
+}
@@ -0,0 +1,723 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.RValue;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.DefinitionStmt;
+import pascal.taie.ir.stmt.If;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.SwitchStmt;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * Sparse conditional constant propagation (in the style of SCCP).
+ * <p>
+ * Instead of pushing whole {@link CPFact}s through every statement, this
+ * solver keeps one lattice value per definition, and propagates the values
+ * along def-use chains. As Tai-e IR is not in SSA form, the solver first
+ * puts the definitions into SSA form in one pass: it computes the dominator
+ * tree of the CFG, places a phi definition of a variable at each node in
+ * the iterated dominance frontier of the definitions of the variable, and
+ * then renames the variables in a pre-order walk of the dominator tree,
+ * which links each use to the only definition (maybe a phi) reaching it.
+ * The value of a phi definition is the meet of the values of its operands.
+ * <p>
+ * Meanwhile, the solver tracks executable CFG edges: the branches of
+ * {@link If} and {@link SwitchStmt} whose conditions are constant are
+ * not executable, and neither are the statements reachable only via such
+ * branches. The values of definitions in non-executable statements
+ * remain UNDEF, which makes the analysis more precise than the dense one.
+ * <p>
+ * The facts of the nodes are not materialized by this solver; they are
+ * derived on demand by {@link SparseCPResult} from the SSA definitions.
+ */
+class SparseSolver {
+
+    private final ConstantPropagation analysis;
+
+    private final CFG<Stmt> cfg;
+
+    private final IR ir;
+
+    /**
+     * Number of statements in the IR. In this solver, the statements are
+     * identified by their indexes, and the entry and exit nodes of the CFG
+     * are identified by {@code nStmts} and {@code nStmts + 1}, respectively.
+     */
+    private final int nStmts;
+
+    private final int entry;
+
+    // ----- dominator tree -----
+
+    /**
+     * Immediate dominator of each node, or -1 if the node is unreachable
+     * from the entry. The immediate dominator of the entry is itself.
+     */
+    private final int[] idom;
+
+    /**
+     * Reachable nodes in reverse post-order.
+     */
+    private int[] rpo;
+
+    // ----- definitions -----
+
+    /**
+     * Node of each definition. The parameters are defined at the entry,
+     * and are the first {@code nParams} definitions. The phi definitions
+     * follow the definitions of the statements.
+     */
+    private final Ints defNodes = new Ints();
+
+    private final List<Var> defVars = new ArrayList<>();
+
+    private int nParams;
+
+    /**
+     * Number of definitions which are not phis.
+     */
+    private int nRealDefs;
+
+    /**
+     * Definition of each node, or -1 if the node defines no relevant variable.
+     */
+    private final int[] defOfNode;
+
+    /**
+     * Phi definitions at each node, i.e., phis of node n are
+     * {@code phis[phiStart[n]]} to {@code phis[phiStart[n + 1] - 1]}.
+     */
+    private int[] phiStart;
+
+    private int[] phis;
+
+    /**
+     * Operands of each phi definition, indexed by {@code d - nRealDefs}.
+     * An operand of -1 means the variable is undefined along the edge.
+     */
+    private Ints[] phiOperands;
+
+    /**
+     * Lattice value of each definition.
+     */
+    private Value[] defValues;
+
+    // ----- def-use chains -----
+
+    /**
+     * Definition of each variable used at each node which reaches the node.
+     */
+    private final Map<Stmt, Map<Var, Integer>> defsOfUse = Maps.newMap();
+
+    /**
+     * Users of each definition: a user is a node id if it is non-negative,
+     * or the bitwise complement of a phi definition otherwise.
+     */
+    private Ints[] usersOfDef;
+
+    // ----- executability -----
+
+    private final BitSet execNodes;
+
+    private final Set<Edge<Stmt>> execEdges;
+
+    SparseSolver(ConstantPropagation analysis, CFG<Stmt> cfg) {
+        this.analysis = analysis;
+        this.cfg = cfg;
+        this.ir = cfg.getIR();
+        this.nStmts = ir.getStmts().size();
+        this.entry = nStmts;
+        this.idom = new int[nStmts + 2];
+        this.defOfNode = new int[nStmts + 2];
+        this.execNodes = new BitSet(nStmts + 2);
+        this.execEdges = Sets.newSet();
+    }
+
+    SparseCPResult solve() {
+        computeDominators();
+        collectDefs();
+        placePhis();
+        rename();
+        propagate();
+        return buildResult();
+    }
+
+    private int id(Stmt node) {
+        if (cfg.isEntry(node)) {
+            return nStmts;
+        } else if (cfg.isExit(node)) {
+            return nStmts + 1;
+        } else {
+            return node.getIndex();
+        }
+    }
+
+    private Stmt node(int id) {
+        if (id == nStmts) {
+            return cfg.getEntry();
+        } else if (id == nStmts + 1) {
+            return cfg.getExit();
+        } else {
+            return ir.getStmt(id);
+        }
+    }
+
+    /**
+     * Computes the immediate dominators of the nodes by the iterative
+     * algorithm of Cooper, Harvey and Kennedy.
+     */
+    private void computeDominators() {
+        // number the reachable nodes in post-order; the traversal is
+        // iterative, as large methods may overflow the stack
+        int[] post = new int[nStmts + 2];
+        int[] order = new int[nStmts + 2];
+        int size = 0;
+        BitSet visited = new BitSet(nStmts + 2);
+        Deque<Stmt> nodes = new ArrayDeque<>();
+        Deque<Iterator<Stmt>> succs = new ArrayDeque<>();
+        visited.set(entry);
+        nodes.push(cfg.getEntry());
+        succs.push(cfg.getSuccsOf(cfg.getEntry()).iterator());
+        while (!nodes.isEmpty()) {
+            Iterator<Stmt> it = succs.peek();
+            if (it.hasNext()) {
+                Stmt succ = it.next();
+                if (!visited.get(id(succ))) {
+                    visited.set(id(succ));
+                    nodes.push(succ);
+                    succs.push(cfg.getSuccsOf(succ).iterator());
+                }
+            } else {
+                int node = id(nodes.pop());
+                succs.pop();
+                post[node] = size;
+                order[size++] = node;
+            }
+        }
+        rpo = new int[size];
+        for (int i = 0; i < size; ++i) {
+            rpo[i] = order[size - 1 - i];
+        }
+        Arrays.fill(idom, -1);
+        idom[entry] = entry;
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int i = 1; i < rpo.length; ++i) {
+                int b = rpo[i];
+                int newIdom = -1;
+                for (Stmt pred : cfg.getPredsOf(node(b))) {
+                    int p = id(pred);
+                    if (idom[p] >= 0) {
+                        newIdom = newIdom < 0 ? p : intersect(p, newIdom, post);
+                    }
+                }
+                if (idom[b] != newIdom) {
+                    idom[b] = newIdom;
+                    changed = true;
+                }
+            }
+        }
+    }
+
+    private int intersect(int b1, int b2, int[] post) {
+        while (b1 != b2) {
+            while (post[b1] < post[b2]) {
+                b1 = idom[b1];
+            }
+            while (post[b2] < post[b1]) {
+                b2 = idom[b2];
+            }
+        }
+        return b1;
+    }
+
+    /**
+     * @return the variable defined by given node if it can hold integer,
+     * otherwise null.
+     */
+    private static Var getDefVar(Stmt node) {
+        if (node instanceof DefinitionStmt<?, ?> defStmt
+                && defStmt.getLValue() instanceof Var var
+                && ConstantPropagation.canHoldInt(var)) {
+            return var;
+        }
+        return null;
+    }
+
+    private void collectDefs() {
+        Arrays.fill(defOfNode, -1);
+        for (Var param : ir.getParams()) {
+            if (ConstantPropagation.canHoldInt(param)) {
+                addDef(entry, param);
+            }
+        }
+        nParams = defVars.size();
+        for (Stmt stmt : ir) {
+            Var var = getDefVar(stmt);
+            if (var != null && idom[stmt.getIndex()] >= 0) {
+                defOfNode[stmt.getIndex()] = addDef(stmt.getIndex(), var);
+            }
+        }
+        nRealDefs = defVars.size();
+    }
+
+    private int addDef(int node, Var var) {
+        defNodes.add(node);
+        defVars.add(var);
+        return defVars.size() - 1;
+    }
+
+    /**
+     * Places the phi definitions of each variable at the iterated dominance
+     * frontier of the nodes defining the variable.
+     */
+    private void placePhis() {
+        Ints[] frontiers = computeDominanceFrontiers();
+        // group the nodes defining each variable, in the order of
+        // the definitions, so that the phis are numbered deterministically
+        Map<Var, Ints> defSites = new LinkedHashMap<>();
+        for (int d = 0; d < nRealDefs; ++d) {
+            defSites.computeIfAbsent(defVars.get(d), __ -> new Ints())
+                    .add(defNodes.get(d));
+        }
+        // the stamps avoid clearing the marks for each variable
+        int[] hasPhi = new int[nStmts + 2];
+        int[] queued = new int[nStmts + 2];
+        int stamp = 0;
+        Ints phiNodes = new Ints();
+        Ints workList = new Ints();
+        for (Map.Entry<Var, Ints> entry : defSites.entrySet()) {
+            ++stamp;
+            Ints sites = entry.getValue();
+            workList.clear();
+            for (int i = 0; i < sites.size(); ++i) {
+                int site = sites.get(i);
+                if (queued[site] != stamp) {
+                    queued[site] = stamp;
+                    workList.add(site);
+                }
+            }
+            while (workList.size() > 0) {
+                Ints frontier = frontiers[workList.pop()];
+                for (int i = 0; frontier != null && i < frontier.size(); ++i) {
+                    int y = frontier.get(i);
+                    if (hasPhi[y] != stamp) {
+                        hasPhi[y] = stamp;
+                        phiNodes.add(y);
+                        addDef(y, entry.getKey());
+                        if (queued[y] != stamp) {
+                            queued[y] = stamp;
+                            workList.add(y);
+                        }
+                    }
+                }
+            }
+        }
+        // index the phis by their nodes
+        phiStart = new int[nStmts + 3];
+        for (int i = 0; i < phiNodes.size(); ++i) {
+            ++phiStart[phiNodes.get(i) + 1];
+        }
+        for (int n = 0; n < nStmts + 2; ++n) {
+            phiStart[n + 1] += phiStart[n];
+        }
+        phis = new int[phiNodes.size()];
+        int[] fill = Arrays.copyOf(phiStart, nStmts + 2);
+        phiOperands = new Ints[phiNodes.size()];
+        for (int i = 0; i < phiNodes.size(); ++i) {
+            phis[fill[phiNodes.get(i)]++] = nRealDefs + i;
+            phiOperands[i] = new Ints();
+        }
+    }
+
+    /**
+     * @return the dominance frontier of each reachable node,
+     * or null if it is empty.
+     */
+    private Ints[] computeDominanceFrontiers() {
+        Ints[] frontiers = new Ints[nStmts + 2];
+        for (int b : rpo) {
+            Set<Stmt> preds = cfg.getPredsOf(node(b));
+            if (preds.size() < 2) {
+                continue;
+            }
+            for (Stmt pred : preds) {
+                int runner = id(pred);
+                if (idom[runner] < 0) {
+                    continue;
+                }
+                while (runner != idom[b]) {
+                    Ints frontier = frontiers[runner];
+                    if (frontier == null) {
+                        frontier = new Ints();
+                        frontiers[runner] = frontier;
+                    }
+                    // b is the last one added if it is already present,
+                    // as the frontiers are built one node at a time
+                    if (frontier.size() == 0
+                            || frontier.get(frontier.size() - 1) != b) {
+                        frontier.add(b);
+                    }
+                    runner = idom[runner];
+                }
+            }
+        }
+        return frontiers;
+    }
+
+    /**
+     * Links each use (including the operands of phis) to the definition
+     * reaching it, by walking the dominator tree in pre-order, and keeping
+     * the current definition of each variable.
+     */
+    private void rename() {
+        int nDefs = defVars.size();
+        usersOfDef = new Ints[nDefs];
+        // children of each node in the dominator tree
+        int[] childStart = new int[nStmts + 3];
+        for (int b : rpo) {
+            if (b != entry) {
+                ++childStart[idom[b] + 1];
+            }
+        }
+        for (int n = 0; n < nStmts + 2; ++n) {
+            childStart[n + 1] += childStart[n];
+        }
+        int[] children = new int[rpo.length - 1];
+        int[] fill = Arrays.copyOf(childStart, nStmts + 2);
+        for (int b : rpo) {
+            if (b != entry) {
+                children[fill[idom[b]]++] = b;
+            }
+        }
+        // current definition of each variable, and the definition
+        // shadowed by each definition on the path from the entry
+        int[] current = new int[ir.getVars().size()];
+        Arrays.fill(current, -1);
+        int[] shadowed = new int[nDefs];
+        int[] stack = new int[rpo.length];
+        int[] next = new int[nStmts + 2];
+        int top = 0;
+        stack[top++] = entry;
+        enter(entry, current, shadowed);
+        while (top > 0) {
+            int node = stack[top - 1];
+            int c = childStart[node] + next[node]++;
+            if (c < childStart[node + 1]) {
+                stack[top++] = children[c];
+                enter(children[c], current, shadowed);
+            } else {
+                --top;
+                leave(node, current, shadowed);
+            }
+        }
+    }
+
+    /**
+     * Renames the definitions and uses at given node, and the operands
+     * of the phis at its successors.
+     */
+    private void enter(int node, int[] current, int[] shadowed) {
+        for (int i = phiStart[node]; i < phiStart[node + 1]; ++i) {
+            push(phis[i], current, shadowed);
+        }
+        if (node == entry) {
+            for (int d = 0; d < nParams; ++d) {
+                push(d, current, shadowed);
+            }
+        } else if (node < nStmts) {
+            Stmt stmt = ir.getStmt(node);
+            for (RValue use : stmt.getUses()) {
+                if (use instanceof Var var && ConstantPropagation.canHoldInt(var)) {
+                    int d = current[var.getIndex()];
+                    if (d >= 0) {
+                        defsOfUse.computeIfAbsent(stmt, __ -> Maps.newMap(4))
+                                .put(var, d);
+                        addUser(d, node);
+                    }
+                }
+            }
+            if (defOfNode[node] >= 0) {
+                push(defOfNode[node], current, shadowed);
+            }
+        }
+        for (Stmt succ : cfg.getSuccsOf(node(node))) {
+            int s = id(succ);
+            for (int i = phiStart[s]; i < phiStart[s + 1]; ++i) {
+                int phi = phis[i];
+                int d = current[defVars.get(phi).getIndex()];
+                phiOperands[phi - nRealDefs].add(d);
+                if (d >= 0) {
+                    addUser(d, ~phi);
+                }
+            }
+        }
+    }
+
+    /**
+     * Restores the current definitions shadowed by the definitions
+     * at given node.
+     */
+    private void leave(int node, int[] current, int[] shadowed) {
+        if (node == entry) {
+            for (int d = nParams - 1; d >= 0; --d) {
+                pop(d, current, shadowed);
+            }
+        } else if (node < nStmts && defOfNode[node] >= 0) {
+            pop(defOfNode[node], current, shadowed);
+        }
+        for (int i = phiStart[node + 1] - 1; i >= phiStart[node]; --i) {
+            pop(phis[i], current, shadowed);
+        }
+    }
+
+    private void push(int d, int[] current, int[] shadowed) {
+        int v = defVars.get(d).getIndex();
+        shadowed[d] = current[v];
+        current[v] = d;
+    }
+
+    private void pop(int d, int[] current, int[] shadowed) {
+        current[defVars.get(d).getIndex()] = shadowed[d];
+    }
+
+    private void addUser(int d, int user) {
+        Ints users = usersOfDef[d];
+        if (users == null) {
+            users = new Ints();
+            usersOfDef[d] = users;
+        }
+        users.add(user);
+    }
+
+    /**
+     * Propagates values along def-use chains and executability along
+     * CFG edges, until both reach fixed point.
+     */
+    private void propagate() {
+        defValues = new Value[defVars.size()];
+        for (int d = 0; d < defValues.length; ++d) {
+            defValues[d] = d < nParams ? Value.getNAC() : Value.getUndef();
+        }
+        Queue<Edge<Stmt>> flowWorkList = new ArrayDeque<>();
+        Queue<Stmt> useWorkList = new ArrayDeque<>();
+        BitSet inUseWorkList = new BitSet(nStmts);
+        execNodes.set(entry);
+        flowWorkList.addAll(cfg.getOutEdgesOf(cfg.getEntry()));
+        while (!flowWorkList.isEmpty() || !useWorkList.isEmpty()) {
+            while (!flowWorkList.isEmpty()) {
+                Edge<Stmt> edge = flowWorkList.poll();
+                if (execEdges.add(edge)) {
+                    Stmt target = edge.getTarget();
+                    int t = id(target);
+                    if (!execNodes.get(t)) {
+                        execNodes.set(t);
+                        visit(target, flowWorkList, useWorkList, inUseWorkList);
+                    }
+                }
+            }
+            if (!useWorkList.isEmpty()) {
+                Stmt stmt = useWorkList.poll();
+                inUseWorkList.clear(stmt.getIndex());
+                visit(stmt, flowWorkList, useWorkList, inUseWorkList);
+            }
+        }
+    }
+
+    /**
+     * Evaluates given executable node, and propagates the changes.
+     */
+    private void visit(Stmt node, Queue<Edge<Stmt>> flowWorkList,
+                       Queue<Stmt> useWorkList, BitSet inUseWorkList) {
+        int d = defOfNode[id(node)];
+        if (d >= 0) {
+            RValue rValue = ((DefinitionStmt<?, ?>) node).getRValue();
+            Value value = analysis.meetValue(defValues[d],
+                    ConstantPropagation.evaluate(rValue, var -> valueAt(node, var)));
+            update(d, value, useWorkList, inUseWorkList);
+        }
+        if (node instanceof If ifStmt) {
+            Value cond = ConstantPropagation.evaluate(
+                    ifStmt.getCondition(), var -> valueAt(node, var));
+            if (cond.isConstant()) {
+                Edge.Kind kind = cond.getConstant() == 0
+                        ? Edge.Kind.IF_FALSE : Edge.Kind.IF_TRUE;
+                for (Edge<Stmt> edge : cfg.getOutEdgesOf(node)) {
+                    if (edge.getKind() == kind) {
+                        flowWorkList.add(edge);
+                    }
+                }
+            } else if (cond.isNAC()) {
+                flowWorkList.addAll(cfg.getOutEdgesOf(node));
+            }
+        } else if (node instanceof SwitchStmt switchStmt) {
+            Value var = valueAt(node, switchStmt.getVar());
+            if (var.isConstant()) {
+                boolean matched = false;
+                for (Edge<Stmt> edge : cfg.getOutEdgesOf(node)) {
+                    if (edge.isSwitchCase()
+                            && edge.getCaseValue() == var.getConstant()) {
+                        flowWorkList.add(edge);
+                        matched = true;
+                    }
+                }
+                if (!matched) {
+                    for (Edge<Stmt> edge : cfg.getOutEdgesOf(node)) {
+                        if (edge.getKind() == Edge.Kind.SWITCH_DEFAULT) {
+                            flowWorkList.add(edge);
+                        }
+                    }
+                }
+            } else if (var.isNAC()) {
+                flowWorkList.addAll(cfg.getOutEdgesOf(node));
+            }
+        } else {
+            flowWorkList.addAll(cfg.getOutEdgesOf(node));
+        }
+    }
+
+    /**
+     * Updates the value of given definition, and propagates the change
+     * to its users: the executable nodes using it are re-visited, and
+     * the phis using it are re-evaluated.
+     */
+    private void update(int def, Value value,
+                        Queue<Stmt> useWorkList, BitSet inUseWorkList) {
+        if (value.equals(defValues[def])) {
+            return;
+        }
+        defValues[def] = value;
+        Ints changed = new Ints();
+        changed.add(def);
+        while (changed.size() > 0) {
+            Ints users = usersOfDef[changed.pop()];
+            for (int i = 0; users != null && i < users.size(); ++i) {
+                int user = users.get(i);
+                if (user >= 0) {
+                    if (execNodes.get(user) && !inUseWorkList.get(user)) {
+                        useWorkList.add(ir.getStmt(user));
+                        inUseWorkList.set(user);
+                    }
+                } else {
+                    int phi = ~user;
+                    Value phiValue = evaluatePhi(phi);
+                    if (!phiValue.equals(defValues[phi])) {
+                        defValues[phi] = phiValue;
+                        changed.add(phi);
+                    }
+                }
+            }
+        }
+    }
+
+    private Value evaluatePhi(int phi) {
+        Ints operands = phiOperands[phi - nRealDefs];
+        Value value = Value.getUndef();
+        for (int i = 0; i < operands.size(); ++i) {
+            int d = operands.get(i);
+            if (d >= 0) {
+                value = analysis.meetValue(value, defValues[d]);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * @return the value of given variable before given node, i.e., the value
+     * of the definition reaching the node. As the definitions in
+     * non-executable nodes are never evaluated, their values remain UNDEF.
+     * Variables that cannot hold integers are NAC, so that branches
+     * depending on them are all executable.
+     */
+    private Value valueAt(Stmt node, Var var) {
+        if (!ConstantPropagation.canHoldInt(var)) {
+            return Value.getNAC();
+        }
+        Map<Var, Integer> defs = defsOfUse.get(node);
+        Integer d = defs != null ? defs.get(var) : null;
+        return d != null ? defValues[d] : Value.getUndef();
+    }
+
+    private SparseCPResult buildResult() {
+        Set<Stmt> executableNodes = Sets.newSet();
+        for (int n = execNodes.nextSetBit(0); n >= 0; n = execNodes.nextSetBit(n + 1)) {
+            executableNodes.add(node(n));
+        }
+        Var[] vars = defVars.toArray(new Var[0]);
+        return new SparseCPResult(executableNodes, execEdges,
+                new SparseCPResult.Definitions(cfg, idom, defOfNode, nParams,
+                        phiStart, phis, vars, defValues));
+    }
+
+    /**
+     * Growable array of ints.
+     */
+    private static class Ints {
+
+        private int[] elems = new int[4];
+
+        private int size = 0;
+
+        void add(int e) {
+            if (size == elems.length) {
+                elems = Arrays.copyOf(elems, size * 2);
+            }
+            elems[size++] = e;
+        }
+
+        int get(int i) {
+            return elems[i];
+        }
+
+        int pop() {
+            return elems[--size];
+        }
+
+        int size() {
+            return size;
+        }
+
+        void clear() {
+            size = 0;
+        }
+    }
+}
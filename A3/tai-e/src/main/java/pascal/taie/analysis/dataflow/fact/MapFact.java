@@ -51,7 +51,19 @@ public class MapFact<K, V> {
      * @param map the map whose mappings are to be placed in this map.
      */
     public MapFact(Map<K, V> map) {
-        this.map = Maps.newHybridMap(map);
+        this.map = newMap(map);
+    }
+
+    /**
+     * Creates the map which holds the mappings of this fact.
+     * Subclasses can override this method to provide specialized
+     * map representations. Note that this method is called by the
+     * constructor, thus it should not rely on the state of subclasses.
+     *
+     * @param map the map whose mappings are to be placed in the resulting map
+     */
+    protected Map<K, V> newMap(Map<K, V> map) {
+        return Maps.newHybridMap(map);
     }
 
     /**
@@ -41,13 +41,25 @@ public class SetFact<E> {
     protected final Set<E> set;
 
     public SetFact(Collection<E> c) {
-        set = Sets.newHybridSet(c);
+        set = newSet(c);
     }
 
     public SetFact() {
         this(Collections.emptySet());
     }
 
+    /**
+     * Creates the set which holds the elements of this fact.
+     * Subclasses can override this method to provide specialized
+     * set representations. Note that this method is called by the
+     * constructor, thus it should not rely on the state of subclasses.
+     *
+     * @param c the elements to be placed in the resulting set
+     */
+    protected Set<E> newSet(Collection<E> c) {
+        return Sets.newHybridSet(c);
+    }
+
     /**
      * @return true if this set contains the specified element, otherwise false.
      */
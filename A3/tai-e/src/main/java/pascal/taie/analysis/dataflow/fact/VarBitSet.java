@@ -0,0 +1,202 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import pascal.taie.ir.exp.Var;
+import pascal.taie.util.AnalysisException;
+
+import java.util.AbstractSet;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Set of {@link Var}s of the same method, backed by a {@link BitSet}
+ * indexed by {@link Var#getIndex()}. Bulk operations with another
+ * {@link VarBitSet} are performed word by word.
+ */
+class VarBitSet extends AbstractSet<Var> {
+
+    private final BitSet bits;
+
+    /**
+     * The variables of the method which the elements of this set belong to.
+     * It is used to map indexes back to variables, and is set when the first
+     * variable is added to this set.
+     */
+    private List<Var> vars;
+
+    VarBitSet(Collection<Var> c) {
+        if (c instanceof VarBitSet other) {
+            bits = (BitSet) other.bits.clone();
+            vars = other.vars;
+        } else {
+            bits = new BitSet();
+            addAll(c);
+        }
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof Var var
+                && bits.get(var.getIndex())
+                && vars.get(var.getIndex()) == var;
+    }
+
+    @Override
+    public boolean add(Var var) {
+        setVars(var);
+        int index = var.getIndex();
+        if (bits.get(index)) {
+            return false;
+        }
+        bits.set(index);
+        return true;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (contains(o)) {
+            bits.clear(((Var) o).getIndex());
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends Var> c) {
+        if (c instanceof VarBitSet other) {
+            if (other.vars == null) {
+                return false;
+            }
+            setVars(other.vars);
+            int oldSize = bits.cardinality();
+            bits.or(other.bits);
+            return bits.cardinality() != oldSize;
+        }
+        return super.addAll(c);
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        if (c instanceof VarBitSet other) {
+            int oldSize = bits.cardinality();
+            bits.and(other.bits);
+            return bits.cardinality() != oldSize;
+        }
+        return super.retainAll(c);
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        if (c instanceof VarBitSet other) {
+            int oldSize = bits.cardinality();
+            bits.andNot(other.bits);
+            return bits.cardinality() != oldSize;
+        }
+        return super.removeAll(c);
+    }
+
+    @Override
+    public void clear() {
+        bits.clear();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return bits.isEmpty();
+    }
+
+    @Override
+    public int size() {
+        return bits.cardinality();
+    }
+
+    @Override
+    public Iterator<Var> iterator() {
+        return new Iterator<>() {
+
+            private int next = bits.nextSetBit(0);
+
+            private int last = -1;
+
+            @Override
+            public boolean hasNext() {
+                return next >= 0;
+            }
+
+            @Override
+            public Var next() {
+                if (next < 0) {
+                    throw new NoSuchElementException();
+                }
+                last = next;
+                next = bits.nextSetBit(next + 1);
+                return vars.get(last);
+            }
+
+            @Override
+            public void remove() {
+                if (last < 0) {
+                    throw new IllegalStateException();
+                }
+                bits.clear(last);
+                last = -1;
+            }
+        };
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o instanceof VarBitSet other) {
+            return bits.equals(other.bits);
+        }
+        return super.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        // keep consistent with other Set implementations
+        return super.hashCode();
+    }
+
+    private void setVars(Var var) {
+        if (vars == null) {
+            vars = var.getMethod().getIR().getVars();
+        } else if (var.getIndex() >= vars.size()
+                || vars.get(var.getIndex()) != var) {
+            throw new AnalysisException(var + " does not belong to the method"
+                    + " of other variables in this set");
+        }
+    }
+
+    private void setVars(List<Var> vars) {
+        if (this.vars == null) {
+            this.vars = vars;
+        } else if (this.vars != vars) {
+            throw new AnalysisException("Cannot mix variables of different methods");
+        }
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import pascal.taie.ir.exp.Var;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Set-like data-flow facts of {@link Var}s, which are represented by
+ * bit sets indexed by {@link Var#getIndex()}. Union, intersection,
+ * equality check and copy of such facts are performed word by word.
+ * <p>
+ * As the indexes of variables are unique only in the same method,
+ * all variables in a fact must belong to the same method.
+ */
+public class VarBitSetFact extends SetFact<Var> {
+
+    public VarBitSetFact(Collection<Var> c) {
+        super(c);
+    }
+
+    public VarBitSetFact() {
+        this(Collections.emptySet());
+    }
+
+    @Override
+    protected Set<Var> newSet(Collection<Var> c) {
+        return new VarBitSet(c);
+    }
+
+    @Override
+    public VarBitSetFact copy() {
+        return new VarBitSetFact(this.set);
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Work-list solver which always picks the pending node that comes first
+ * in reverse post-order (for forward analysis) or post-order (for backward
+ * analysis) of the CFG, so that a node is usually visited after all its
+ * predecessors (successors) have been visited.
+ * <p>
+ * The work-list is a {@link BitSet} indexed by the position of each node
+ * in the order, which serves as both the priority queue and the membership
+ * test, thus adding a node to the work-list takes constant time.
+ */
+class PriorityWorkListSolver<Node, Fact> extends Solver<Node, Fact> {
+
+    PriorityWorkListSolver(DataflowAnalysis<Node, Fact> analysis) {
+        super(analysis);
+    }
+
+    @Override
+    protected void doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        List<Node> order = computePostOrder(cfg);
+        Collections.reverse(order);
+        Map<Node, Integer> priorities = computePriorities(order);
+        BitSet workList = new BitSet(order.size());
+        workList.set(0, order.size());
+        Fact scratch = newScratchFact();
+        for (int i = workList.nextSetBit(0); i >= 0; i = workList.nextSetBit(0)) {
+            workList.clear(i);
+            Node node = order.get(i);
+            Fact in = resetInFact(result, node);
+            meetPredsInto(cfg, result, node, in);
+            if (transferNode(node, in, result.getOutFact(node), scratch)) {
+                for (Node succ : cfg.getSuccsOf(node)) {
+                    workList.set(priorities.get(succ));
+                }
+            }
+        }
+    }
+
+    @Override
+    protected void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        List<Node> order = computePostOrder(cfg);
+        Map<Node, Integer> priorities = computePriorities(order);
+        BitSet workList = new BitSet(order.size());
+        workList.set(0, order.size());
+        Fact scratch = newScratchFact();
+        for (int i = workList.nextSetBit(0); i >= 0; i = workList.nextSetBit(0)) {
+            workList.clear(i);
+            Node node = order.get(i);
+            Fact out = resetOutFact(result, node);
+            meetSuccsInto(cfg, result, node, out);
+            if (transferNode(node, result.getInFact(node), out, scratch)) {
+                for (Node pred : cfg.getPredsOf(node)) {
+                    workList.set(priorities.get(pred));
+                }
+            }
+        }
+    }
+
+    /**
+     * Computes post-order of the nodes by depth-first search from the entry
+     * of given CFG. The nodes that are unreachable from the entry are
+     * appended in the iteration order of the CFG.
+     */
+    private static <Node> List<Node> computePostOrder(CFG<Node> cfg) {
+        List<Node> postOrder = new ArrayList<>(cfg.getNumberOfNodes());
+        Set<Node> visited = Sets.newSet(cfg.getNumberOfNodes());
+        // the DFS is iterative, as recursion may overflow
+        // the stack on large methods
+        Deque<Node> nodes = new ArrayDeque<>();
+        Deque<Iterator<Node>> succs = new ArrayDeque<>();
+        visited.add(cfg.getEntry());
+        nodes.push(cfg.getEntry());
+        succs.push(cfg.getSuccsOf(cfg.getEntry()).iterator());
+        while (!nodes.isEmpty()) {
+            Iterator<Node> it = succs.peek();
+            if (it.hasNext()) {
+                Node succ = it.next();
+                if (visited.add(succ)) {
+                    nodes.push(succ);
+                    succs.push(cfg.getSuccsOf(succ).iterator());
+                }
+            } else {
+                postOrder.add(nodes.pop());
+                succs.pop();
+            }
+        }
+        for (Node node : cfg) {
+            if (!visited.contains(node)) {
+                postOrder.add(node);
+            }
+        }
+        return postOrder;
+    }
+
+    private static <Node> Map<Node, Integer> computePriorities(List<Node> order) {
+        Map<Node, Integer> priorities = Maps.newMap(order.size());
+        for (int i = 0; i < order.size(); ++i) {
+            priorities.put(order.get(i), i);
+        }
+        return priorities;
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.util.collection.SetQueue;
+import pascal.taie.util.graph.MergedNode;
+import pascal.taie.util.graph.MergedSCCGraph;
+import pascal.taie.util.graph.TopoSorter;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * Work-list solver which condenses the CFG into its strongly connected
+ * components (SCCs), and visits the SCCs in topological order (for forward
+ * analysis) or reverse topological order (for backward analysis).
+ * Each SCC is solved to a local fixed point before moving on, as the facts
+ * flowing into it from other SCCs never change afterwards. Consequently,
+ * nodes outside loops are visited exactly once.
+ */
+class SCCWorkListSolver<Node, Fact> extends Solver<Node, Fact> {
+
+    SCCWorkListSolver(DataflowAnalysis<Node, Fact> analysis) {
+        super(analysis);
+    }
+
+    @Override
+    protected void doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        MergedSCCGraph<Node> sccGraph = new MergedSCCGraph<>(cfg);
+        List<MergedNode<Node>> order = new TopoSorter<>(sccGraph).get();
+        Fact scratch = newScratchFact();
+        for (MergedNode<Node> scc : order) {
+            List<Node> nodes = scc.getNodes();
+            if (!isCyclic(cfg, nodes)) {
+                transferForward(cfg, result, nodes.get(0), scratch);
+                continue;
+            }
+            Set<Node> members = Set.copyOf(nodes);
+            Queue<Node> workList = new SetQueue<>();
+            workList.addAll(nodes);
+            while (!workList.isEmpty()) {
+                Node node = workList.poll();
+                if (transferForward(cfg, result, node, scratch)) {
+                    for (Node succ : cfg.getSuccsOf(node)) {
+                        if (members.contains(succ)) {
+                            workList.add(succ);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private boolean transferForward(CFG<Node> cfg, DataflowResult<Node, Fact> result,
+                                    Node node, Fact scratch) {
+        Fact in = resetInFact(result, node);
+        meetPredsInto(cfg, result, node, in);
+        return transferNode(node, in, result.getOutFact(node), scratch);
+    }
+
+    @Override
+    protected void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        MergedSCCGraph<Node> sccGraph = new MergedSCCGraph<>(cfg);
+        List<MergedNode<Node>> order = new TopoSorter<>(sccGraph, true).get();
+        Fact scratch = newScratchFact();
+        for (MergedNode<Node> scc : order) {
+            List<Node> nodes = scc.getNodes();
+            if (!isCyclic(cfg, nodes)) {
+                transferBackward(cfg, result, nodes.get(0), scratch);
+                continue;
+            }
+            Set<Node> members = Set.copyOf(nodes);
+            Queue<Node> workList = new SetQueue<>();
+            workList.addAll(nodes);
+            while (!workList.isEmpty()) {
+                Node node = workList.poll();
+                if (transferBackward(cfg, result, node, scratch)) {
+                    for (Node pred : cfg.getPredsOf(node)) {
+                        if (members.contains(pred)) {
+                            workList.add(pred);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private boolean transferBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result,
+                                     Node node, Fact scratch) {
+        Fact out = resetOutFact(result, node);
+        meetSuccsInto(cfg, result, node, out);
+        return transferNode(node, result.getInFact(node), out, scratch);
+    }
+
+    /**
+     * @return true if the SCC consisting of given nodes contains a cycle,
+     * i.e., it has multiple nodes, or its only node has a self-loop.
+     */
+    private static <Node> boolean isCyclic(CFG<Node> cfg, List<Node> nodes) {
+        if (nodes.size() > 1) {
+            return true;
+        }
+        Node node = nodes.get(0);
+        return cfg.getSuccsOf(node).contains(node);
+    }
+}
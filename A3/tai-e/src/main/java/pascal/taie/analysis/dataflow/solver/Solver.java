@@ -23,8 +23,13 @@
 package pascal.taie.analysis.dataflow.solver;
 
 import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.dataflow.analysis.InPlaceDataflowAnalysis;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.config.ConfigException;
+
+import javax.annotation.Nullable;
 
 /**
  * Base class for data-flow analysis solver, which provides common
@@ -37,8 +42,17 @@ public abstract class Solver<Node, Fact> {
 
     protected final DataflowAnalysis<Node, Fact> analysis;
 
+    /**
+     * The analysis as an {@link InPlaceDataflowAnalysis} if it supports
+     * in-place updates of facts, otherwise null.
+     */
+    @Nullable
+    private final InPlaceDataflowAnalysis<Node, Fact> inPlaceAnalysis;
+
     protected Solver(DataflowAnalysis<Node, Fact> analysis) {
         this.analysis = analysis;
+        this.inPlaceAnalysis = analysis instanceof InPlaceDataflowAnalysis<Node, Fact> a
+                ? a : null;
     }
 
     /**
@@ -49,6 +63,27 @@ public abstract class Solver<Node, Fact> {
         return new WorkListSolver<>(analysis);
     }
 
+    /**
+     * Static factory method to create a new solver of given kind
+     * for given analysis.
+     *
+     * @param kind kind of the solver, i.e., "worklist", "priority" or "scc".
+     *             If it is null, then the default solver is created.
+     * @throws ConfigException if the kind is unknown
+     */
+    public static <Node, Fact> Solver<Node, Fact> makeSolver(
+            DataflowAnalysis<Node, Fact> analysis, @Nullable String kind) {
+        if (kind == null) {
+            return makeSolver(analysis);
+        }
+        return switch (kind) {
+            case "worklist" -> new WorkListSolver<>(analysis);
+            case "priority" -> new PriorityWorkListSolver<>(analysis);
+            case "scc" -> new SCCWorkListSolver<>(analysis);
+            default -> throw new ConfigException("Unknown data-flow solver: " + kind);
+        };
+    }
+
     /**
      * Starts this solver on the given CFG.
      *
@@ -116,4 +151,94 @@ public abstract class Solver<Node, Fact> {
     protected abstract void doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result);
 
     protected abstract void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result);
+
+    /**
+     * Resets the flowing-in fact of given node to the initial fact, so that
+     * it can be recomputed by meeting the facts of the predecessors.
+     * For in-place analyses, the existing fact object is reused.
+     *
+     * @return the reset fact.
+     */
+    protected Fact resetInFact(DataflowResult<Node, Fact> result, Node node) {
+        Fact in = result.getInFact(node);
+        if (inPlaceAnalysis != null && in != null) {
+            inPlaceAnalysis.resetFact(in);
+        } else {
+            in = analysis.newInitialFact();
+            result.setInFact(node, in);
+        }
+        return in;
+    }
+
+    /**
+     * Resets the flowing-out fact of given node to the initial fact, so that
+     * it can be recomputed by meeting the facts of the successors.
+     * For in-place analyses, the existing fact object is reused.
+     *
+     * @return the reset fact.
+     */
+    protected Fact resetOutFact(DataflowResult<Node, Fact> result, Node node) {
+        Fact out = result.getOutFact(node);
+        if (inPlaceAnalysis != null && out != null) {
+            inPlaceAnalysis.resetFact(out);
+        } else {
+            out = analysis.newInitialFact();
+            result.setOutFact(node, out);
+        }
+        return out;
+    }
+
+    /**
+     * Meets the out facts of the predecessors of given node into
+     * given fact, applying the edge transfer on the in edges that need it.
+     */
+    protected void meetPredsInto(CFG<Node> cfg, DataflowResult<Node, Fact> result,
+                                 Node node, Fact in) {
+        for (Edge<Node> edge : cfg.getInEdgesOf(node)) {
+            Fact fact = result.getOutFact(edge.getSource());
+            if (analysis.needTransferEdge(edge)) {
+                analysis.meetEdgeInto(edge, fact, in);
+            } else {
+                analysis.meetInto(fact, in);
+            }
+        }
+    }
+
+    /**
+     * Meets the in facts of the successors of given node into
+     * given fact, applying the edge transfer on the out edges that need it.
+     */
+    protected void meetSuccsInto(CFG<Node> cfg, DataflowResult<Node, Fact> result,
+                                 Node node, Fact out) {
+        for (Edge<Node> edge : cfg.getOutEdgesOf(node)) {
+            Fact fact = result.getInFact(edge.getTarget());
+            if (analysis.needTransferEdge(edge)) {
+                analysis.meetEdgeInto(edge, fact, out);
+            } else {
+                analysis.meetInto(fact, out);
+            }
+        }
+    }
+
+    /**
+     * @return a new scratch fact for {@link #transferNode}, which should be
+     * created once per solving, or null if the analysis does not need it.
+     */
+    @Nullable
+    protected Fact newScratchFact() {
+        return inPlaceAnalysis != null ? analysis.newInitialFact() : null;
+    }
+
+    /**
+     * Applies the node transfer function of the analysis. The scratch fact,
+     * if given, is passed to in-place analyses.
+     *
+     * @return true if the transfer changed the out (in) fact, otherwise false.
+     */
+    protected boolean transferNode(Node node, Fact in, Fact out,
+                                   @Nullable Fact scratch) {
+        return inPlaceAnalysis != null && scratch != null
+                ? inPlaceAnalysis.transferNode(node, in, out, scratch)
+                : analysis.transferNode(node, in, out);
+    }
 }
@@ -39,14 +39,13 @@ class WorkListSolver<Node, Fact> extends Solver<Node, Fact> {
     protected void doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
         Queue<Node> workList = new LinkedList<Node>();
         for (Node node : cfg) workList.add(node);
+        Fact scratch = newScratchFact();
         while (!workList.isEmpty()) {
             Node node = workList.poll();
             //Fact temp = result.getOutFact(node);
-            result.setInFact(node, analysis.newInitialFact()); // 总感觉要清空？？
-            for (Node pre : cfg.getPredsOf(node)) {
-                analysis.meetInto(result.getOutFact(pre), result.getInFact(node));
-            }
-            if (analysis.transferNode(node, result.getInFact(node), result.getOutFact(node))) { //FixBug: 修改用伪代码中用temp判断，WHY??
+            Fact in = resetInFact(result, node); // 总感觉要清空？？
+            meetPredsInto(cfg, result, node, in);
+            if (transferNode(node, in, result.getOutFact(node), scratch)) { //FixBug: 修改用伪代码中用temp判断，WHY??
                 //workList.addAll(cfg.getSuccsOf(node)); // 没去重的写法，不过感觉没有问题
                 for (Node success : cfg.getSuccsOf(node)) {
                     if (!workList.contains(success)) workList.add(success);
@@ -59,14 +58,13 @@ class WorkListSolver<Node, Fact> extends Solver<Node, Fact> {
     protected void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
         Queue<Node> workList = new LinkedList<Node>();
         for (Node node : cfg) workList.add(node);
+        Fact scratch = newScratchFact();
         while (!workList.isEmpty()) {
             Node node = workList.poll();
             //Fact temp = result.getOutFact(node);
-            result.setOutFact(node, analysis.newInitialFact()); // 总感觉要清空？？
-            for (Node success : cfg.getSuccsOf(node)) {
-                analysis.meetInto(result.getInFact(success), result.getOutFact(node));
-            }
-            if (analysis.transferNode(node, result.getInFact(node), result.getOutFact(node))) { //FixBug: 修改用伪代码中用temp判断，WHY??
+            Fact out = resetOutFact(result, node); // 总感觉要清空？？
+            meetSuccsInto(cfg, result, node, out);
+            if (transferNode(node, result.getInFact(node), out, scratch)) { //FixBug: 修改用伪代码中用temp判断，WHY??
                 //workList.addAll(cfg.getPredsOf(node)); // 没去重的写法，不过感觉没有问题
                 for (Node pre : cfg.getPredsOf(node)) {
                     if (!workList.contains(pre)) workList.add(pre);
@@ -0,0 +1,84 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.analysis.dataflow.analysis.DeadCodeDetection;
+import pascal.taie.config.ConfigException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class AnalysisManagerTest {
+
+    private static final String CLASS_PATH = "src/test/resources/dataflow/deadcode/";
+
+    /**
+     * Runs dead code detection, whose required analyses form a pipeline
+     * of method analyses, and dumps its results to given file.
+     */
+    private static void dumpDCD(String main, Path file, String... extraArgs) {
+        String[] args = {
+                "-pp", "-cp", CLASS_PATH, "-m", main,
+                "-a", "livevar=strongly:false",
+                "-a", "constprop=edge-refine:false",
+                "-a", DeadCodeDetection.ID,
+                "-a", ResultProcessor.ID + "=analyses:[" + DeadCodeDetection.ID
+                        + "];action:dump;file:" + file };
+        String[] allArgs = new String[args.length + extraArgs.length];
+        System.arraycopy(extraArgs, 0, allArgs, 0, extraArgs.length);
+        System.arraycopy(args, 0, allArgs, extraArgs.length, args.length);
+        Main.main(allArgs);
+    }
+
+    @Test
+    public void testPipelineDumpsInDeterministicOrder() throws IOException {
+        // the methods are analyzed in parallel, but the dumped results
+        // must be in the order of the expected file (which was dumped by
+        // the sequential manager) in every run
+        Path expected = Path.of(CLASS_PATH, "Loops-deadcode-expected.txt");
+        Path dump = Files.createTempFile("deadcode", ".txt");
+        try {
+            for (int i = 0; i < 10; ++i) {
+                dumpDCD("Loops", dump);
+                Assert.assertEquals(Files.readAllLines(expected),
+                        Files.readAllLines(dump));
+            }
+        } finally {
+            Files.deleteIfExists(dump);
+        }
+    }
+
+    @Test(expected = ConfigException.class)
+    public void testReachableScopeIsUnsupported() throws IOException {
+        Path dump = Files.createTempFile("deadcode", ".txt");
+        try {
+            dumpDCD("Loops", dump, "-scope", "reachable");
+        } finally {
+            Files.deleteIfExists(dump);
+        }
+    }
+}
@@ -22,8 +22,44 @@
 
 package pascal.taie.analysis.dataflow.analysis;
 
+import org.junit.Assert;
 import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
 import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.analysis.constprop.SparseCPResult;
+import pascal.taie.analysis.dataflow.analysis.constprop.Value;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.NodeResult;
+import pascal.taie.analysis.dataflow.fact.SetFact;
+import pascal.taie.analysis.dataflow.fact.VarBitSetFact;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.util.collection.Sets;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class DeadCodeTest {
 
@@ -34,6 +70,121 @@ public class DeadCodeTest {
                 "-a", "constprop=edge-refine:false");
     }
 
+    void testDCDWithSolver(String inputClass, String solver) {
+        Tests.test(inputClass, "src/test/resources/dataflow/deadcode/",
+                DeadCodeDetection.ID,
+                "-a", "livevar=strongly:false;solver:" + solver,
+                "-a", "constprop=edge-refine:false;solver:" + solver);
+    }
+
+    void testDCDSparse(String inputClass) {
+        Tests.test(inputClass, "src/test/resources/dataflow/deadcode/",
+                DeadCodeDetection.ID,
+                "-a", "livevar=strongly:false",
+                "-a", "constprop=edge-refine:false;sparse:true");
+    }
+
+    void testDCDWithEdgeRefine(String inputClass) {
+        Tests.test(inputClass, "src/test/resources/dataflow/deadcode/",
+                DeadCodeDetection.ID,
+                "-a", "livevar=strongly:false",
+                "-a", "constprop=edge-refine:true");
+    }
+
+    void testDCDWithCache(String inputClass, Path cacheDir) {
+        Tests.test(inputClass, "src/test/resources/dataflow/deadcode/",
+                DeadCodeDetection.ID,
+                "-a", "livevar=strongly:false;cache-dir:" + cacheDir,
+                "-a", "constprop=edge-refine:false;cache-dir:" + cacheDir);
+    }
+
+    /**
+     * Runs dead code detection on given class without comparing the results,
+     * so that the results can be examined via the IRs in {@link World}.
+     */
+    static void runDCD(String inputClass, String constpropOpts) {
+        Main.main(new String[]{
+                "-pp", "-cp", "src/test/resources/dataflow/deadcode/",
+                "-m", inputClass,
+                "-a", "livevar=strongly:false",
+                "-a", "constprop=" + constpropOpts,
+                "-a", DeadCodeDetection.ID });
+    }
+
+    /**
+     * Applies given action to the IRs of the application methods
+     * analyzed by the last run.
+     */
+    static void forEachIR(Consumer<IR> action) {
+        World.get().getClassHierarchy().applicationClasses()
+                .flatMap(c -> c.getDeclaredMethods().stream())
+                .filter(m -> !m.isAbstract() && !m.isNative())
+                .forEach(m -> action.accept(m.getIR()));
+    }
+
+    static IR getIR(String className, String methodName) {
+        return World.get().getClassHierarchy()
+                .getClass(className)
+                .getDeclaredMethod(methodName)
+                .getIR();
+    }
+
+    static Var getVar(IR ir, String name) {
+        return ir.getVars()
+                .stream()
+                .filter(v -> v.getName().equals(name))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    static List<Stmt> getStmtsAt(IR ir, int lineNumber) {
+        List<Stmt> stmts = ir.getStmts()
+                .stream()
+                .filter(s -> s.getLineNumber() == lineNumber)
+                .toList();
+        Assert.assertFalse(stmts.isEmpty());
+        return stmts;
+    }
+
+    /**
+     * @return true if target can be reached from source via at least one edge.
+     */
+    static boolean reaches(CFG<Stmt> cfg, Stmt source, Stmt target) {
+        Set<Stmt> visited = Sets.newSet();
+        Deque<Stmt> workList = new ArrayDeque<>(cfg.getSuccsOf(source));
+        while (!workList.isEmpty()) {
+            Stmt stmt = workList.poll();
+            if (stmt == target) {
+                return true;
+            }
+            if (visited.add(stmt)) {
+                workList.addAll(cfg.getSuccsOf(stmt));
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the in and out facts of given analysis for all statements
+     * of the application methods analyzed by the last run, keyed by
+     * the method signatures and the indexes of the statements.
+     */
+    static Map<String, String> collectResults(String id) {
+        Map<String, String> results = new TreeMap<>();
+        World.get().getClassHierarchy().applicationClasses()
+                .flatMap(c -> c.getDeclaredMethods().stream())
+                .filter(m -> !m.isAbstract() && !m.isNative())
+                .forEach(m -> {
+                    IR ir = m.getIR();
+                    NodeResult<Stmt, ?> result = ir.getResult(id);
+                    for (Stmt stmt : ir) {
+                        results.put(m + "/" + stmt.getIndex(),
+                                result.getInFact(stmt) + " -> " + result.getOutFact(stmt));
+                    }
+                });
+        return results;
+    }
+
     @Test
     public void testControlFlowUnreachable() {
         testDCD("ControlFlowUnreachable");
@@ -58,4 +209,321 @@ public class DeadCodeTest {
     public void testLoops() {
         testDCD("Loops");
     }
+
+    @Test
+    public void testLoopsPrioritySolver() {
+        testDCDWithSolver("Loops", "priority");
+    }
+
+    @Test
+    public void testUnreachableSwitchBranchPrioritySolver() {
+        testDCDWithSolver("UnreachableSwitchBranch", "priority");
+    }
+
+    @Test
+    public void testPrioritySolverVisitsInReversePostOrder() {
+        runDCD("Diamonds", "edge-refine:false");
+        IR ir = getIR("Diamonds", "diamonds");
+        CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+        RecordingConstantPropagation cp = new RecordingConstantPropagation("priority");
+        cp.analyze(ir);
+        // the CFG is acyclic, thus each node is visited exactly once,
+        // and after all its predecessors
+        List<Stmt> visits = cp.visits;
+        Assert.assertEquals(cfg.getNumberOfNodes(), visits.size());
+        for (int i = 0; i < visits.size(); ++i) {
+            for (Stmt pred : cfg.getPredsOf(visits.get(i))) {
+                Assert.assertTrue(visits.subList(0, i).contains(pred));
+            }
+        }
+    }
+
+    @Test
+    public void testSolversReuseFacts() {
+        runDCD("SparseLoop", "edge-refine:false");
+        IR ir = getIR("SparseLoop", "loop");
+        CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+        int nodes = cfg.getNumberOfNodes();
+        for (String solver : List.of("worklist", "priority", "scc")) {
+            RecordingLiveVariableAnalysis lv = new RecordingLiveVariableAnalysis(solver);
+            lv.analyze(ir);
+            // the nodes in the loop are visited more than once, but only
+            // the in and out facts of each node and one scratch fact
+            // are ever allocated
+            Assert.assertTrue(lv.visits > nodes);
+            Assert.assertEquals(2 * nodes + 1, lv.newFacts);
+            Assert.assertEquals(1, lv.scratches.size());
+        }
+    }
+
+    @Test
+    public void testLoopsSCCSolver() {
+        testDCDWithSolver("Loops", "scc");
+    }
+
+    @Test
+    public void testDeadAssignmentSCCSolver() {
+        testDCDWithSolver("DeadAssignment", "scc");
+    }
+
+    @Test
+    public void testSCCSolverFinishesEachSCCBeforeLeavingIt() {
+        runDCD("SparseLoop", "edge-refine:false");
+        IR ir = getIR("SparseLoop", "loop");
+        CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+        RecordingConstantPropagation cp = new RecordingConstantPropagation("scc");
+        cp.analyze(ir);
+        List<Stmt> visits = cp.visits;
+        for (int i = 0; i < visits.size(); ++i) {
+            Stmt node = visits.get(i);
+            if (!reaches(cfg, node, node)) {
+                // nodes outside loops are visited exactly once
+                Assert.assertEquals(1, Collections.frequency(visits, node));
+            }
+            for (Stmt pred : cfg.getPredsOf(node)) {
+                if (!reaches(cfg, node, pred)) {
+                    // pred belongs to a preceding SCC, which must
+                    // have been solved before node is visited
+                    Assert.assertTrue(visits.lastIndexOf(pred) < i);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testBitSetFactsEqualHashSetFacts() {
+        for (String input : List.of("Loops", "DeadAssignment", "Diamonds", "SparseLoop")) {
+            runDCD(input, "edge-refine:false");
+            forEachIR(ir -> {
+                DataflowResult<Stmt, SetFact<Var>> bitSetResult =
+                        ir.getResult(LiveVariableAnalysis.ID);
+                DataflowResult<Stmt, SetFact<Var>> hashSetResult =
+                        new HashSetLiveVariableAnalysis().analyze(ir);
+                for (Stmt stmt : ir) {
+                    SetFact<Var> in = bitSetResult.getInFact(stmt);
+                    SetFact<Var> out = bitSetResult.getOutFact(stmt);
+                    Assert.assertTrue(in instanceof VarBitSetFact);
+                    Assert.assertEquals(hashSetResult.getInFact(stmt), in);
+                    Assert.assertEquals(hashSetResult.getOutFact(stmt), out);
+                    Assert.assertEquals(hashSetResult.getInFact(stmt).hashCode(), in.hashCode());
+                }
+            });
+        }
+    }
+
+    @Test
+    public void testPackedFactsMeetLikeMaps() {
+        ConstantPropagation cp = new ConstantPropagation(
+                new AnalysisConfig(ConstantPropagation.ID));
+        for (String input : List.of("Loops", "UnreachableSwitchBranch", "Diamonds", "SparseLoop")) {
+            runDCD(input, "edge-refine:false");
+            forEachIR(ir -> {
+                CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+                DataflowResult<Stmt, CPFact> result = ir.getResult(ConstantPropagation.ID);
+                for (Stmt stmt : cfg) {
+                    if (cfg.isEntry(stmt)) {
+                        continue;
+                    }
+                    // at the fixed point, the in fact of each node equals
+                    // to the out facts of its predecessors met as maps
+                    Map<Var, Value> expected = new HashMap<>();
+                    for (Stmt pred : cfg.getPredsOf(stmt)) {
+                        result.getOutFact(pred).forEach((var, value) ->
+                                expected.merge(var, value, cp::meetValue));
+                    }
+                    CPFact in = result.getInFact(stmt);
+                    Assert.assertEquals(expected, in.entries().collect(
+                            Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)));
+                    Assert.assertEquals(expected.hashCode(), in.hashCode());
+                    expected.forEach((var, value) -> Assert.assertEquals(value, in.get(var)));
+                    Assert.assertEquals(in, in.copy());
+                }
+            });
+        }
+    }
+
+    @Test
+    public void testUnreachableIfBranchSparse() {
+        testDCDSparse("UnreachableIfBranch");
+    }
+
+    @Test
+    public void testUnreachableSwitchBranchSparse() {
+        testDCDSparse("UnreachableSwitchBranch");
+    }
+
+    @Test
+    public void testSparseSkipsNonExecutableDefinitions() {
+        // dense propagation meets x = 2 into the loop, thus x is NAC
+        runDCD("SparseLoop", "edge-refine:false");
+        IR ir = getIR("SparseLoop", "loop");
+        Var x = getVar(ir, "x");
+        DataflowResult<Stmt, CPFact> dense = ir.getResult(ConstantPropagation.ID);
+        Stmt ret = getStmtsAt(ir, 12).get(0);
+        Assert.assertEquals(Value.getNAC(), dense.getInFact(ret).get(x));
+        // while x = 2 is never executed in sparse propagation
+        runDCD("SparseLoop", "edge-refine:false;sparse:true");
+        ir = getIR("SparseLoop", "loop");
+        x = getVar(ir, "x");
+        SparseCPResult sparse = ir.getResult(ConstantPropagation.ID);
+        ret = getStmtsAt(ir, 12).get(0);
+        Assert.assertEquals(Value.makeConstant(1), sparse.getInFact(ret).get(x));
+        Assert.assertTrue(sparse.isExecutable(ret));
+        for (Stmt stmt : getStmtsAt(ir, 8)) {
+            Assert.assertFalse(sparse.isExecutable(stmt));
+        }
+    }
+
+    @Test
+    public void testDeadCodeUsesSparseExecutability() {
+        runDCD("SparseLoop", "edge-refine:false");
+        IR ir = getIR("SparseLoop", "loop");
+        Set<Stmt> deadCode = ir.getResult(DeadCodeDetection.ID);
+        Assert.assertTrue(Collections.disjoint(deadCode, getStmtsAt(ir, 8)));
+        runDCD("SparseLoop", "edge-refine:false;sparse:true");
+        ir = getIR("SparseLoop", "loop");
+        deadCode = ir.getResult(DeadCodeDetection.ID);
+        Assert.assertTrue(deadCode.containsAll(getStmtsAt(ir, 8)));
+    }
+
+    @Test
+    public void testCachedResultsMatchComputed() throws IOException {
+        Path cacheDir = Files.createTempDirectory("dataflow-cache");
+        try {
+            // the first run fills the cache, and the second run reads it
+            testDCDWithCache("Loops", cacheDir);
+            Map<String, String> cp = collectResults(ConstantPropagation.ID);
+            Map<String, String> lv = collectResults(LiveVariableAnalysis.ID);
+            try (Stream<Path> files = Files.list(cacheDir)) {
+                Assert.assertTrue(files.findAny().isPresent());
+            }
+            testDCDWithCache("Loops", cacheDir);
+            Assert.assertEquals(cp, collectResults(ConstantPropagation.ID));
+            Assert.assertEquals(lv, collectResults(LiveVariableAnalysis.ID));
+        } finally {
+            try (Stream<Path> files = Files.walk(cacheDir)) {
+                files.sorted(Comparator.reverseOrder())
+                        .forEach(file -> file.toFile().delete());
+            }
+        }
+    }
+
+    @Test
+    public void testLoopsEdgeRefine() {
+        testDCDWithEdgeRefine("Loops");
+    }
+
+    @Test
+    public void testUnreachableSwitchBranchEdgeRefine() {
+        testDCDWithEdgeRefine("UnreachableSwitchBranch");
+    }
+
+    @Test
+    public void testEdgeRefinementMakesNACConstant() {
+        // without refinement, x is NAC and so is y = x + 1
+        runDCD("Refine", "edge-refine:false");
+        IR ir = getIR("Refine", "refine");
+        Assert.assertEquals(Value.getNAC(), getValueDefinedAt(ir, "y", 6));
+        Set<Stmt> deadCode = ir.getResult(DeadCodeDetection.ID);
+        Assert.assertTrue(Collections.disjoint(deadCode, getStmtsAt(ir, 8)));
+        // x is 5 along the true edge of x == 5, thus y is 6,
+        // and the branch of y != 6 becomes unreachable
+        runDCD("Refine", "edge-refine:true");
+        ir = getIR("Refine", "refine");
+        Assert.assertEquals(Value.makeConstant(6), getValueDefinedAt(ir, "y", 6));
+        deadCode = ir.getResult(DeadCodeDetection.ID);
+        Assert.assertTrue(deadCode.containsAll(getStmtsAt(ir, 8)));
+    }
+
+    /**
+     * @return the value of given variable after the statement
+     * at given line which defines the variable.
+     */
+    private static Value getValueDefinedAt(IR ir, String varName, int lineNumber) {
+        Var var = getVar(ir, varName);
+        Stmt def = getStmtsAt(ir, lineNumber)
+                .stream()
+                .filter(s -> s.getDef().filter(var::equals).isPresent())
+                .findFirst()
+                .orElseThrow();
+        DataflowResult<Stmt, CPFact> result = ir.getResult(ConstantPropagation.ID);
+        return result.getOutFact(def).get(var);
+    }
+
+    /**
+     * Constant propagation which records the nodes it visits.
+     */
+    private static class RecordingConstantPropagation extends ConstantPropagation {
+
+        private final List<Stmt> visits = new ArrayList<>();
+
+        private RecordingConstantPropagation(String solver) {
+            super(new AnalysisConfig(ID, "edge-refine", false, "solver", solver));
+        }
+
+        @Override
+        public boolean transferNode(Stmt stmt, CPFact in, CPFact out) {
+            visits.add(stmt);
+            return super.transferNode(stmt, in, out);
+        }
+    }
+
+    /**
+     * Live variable analysis which counts the facts it creates,
+     * and records the scratch facts given by the solver.
+     */
+    private static class RecordingLiveVariableAnalysis extends LiveVariableAnalysis {
+
+        private final Set<SetFact<Var>> scratches =
+                Collections.newSetFromMap(new IdentityHashMap<>());
+
+        private int newFacts = 0;
+
+        private int visits = 0;
+
+        private RecordingLiveVariableAnalysis(String solver) {
+            super(new AnalysisConfig(ID, "strongly", false, "solver", solver));
+        }
+
+        @Override
+        public SetFact<Var> newBoundaryFact(CFG<Stmt> cfg) {
+            ++newFacts;
+            return super.newBoundaryFact(cfg);
+        }
+
+        @Override
+        public SetFact<Var> newInitialFact() {
+            ++newFacts;
+            return super.newInitialFact();
+        }
+
+        @Override
+        public boolean transferNode(Stmt stmt, SetFact<Var> in, SetFact<Var> out,
+                                    SetFact<Var> scratch) {
+            ++visits;
+            scratches.add(scratch);
+            return super.transferNode(stmt, in, out, scratch);
+        }
+    }
+
+    /**
+     * Live variable analysis whose facts are backed by hash sets
+     * instead of bit sets.
+     */
+    private static class HashSetLiveVariableAnalysis extends LiveVariableAnalysis {
+
+        private HashSetLiveVariableAnalysis() {
+            super(new AnalysisConfig(ID, "strongly", false));
+        }
+
+        @Override
+        public SetFact<Var> newBoundaryFact(CFG<Stmt> cfg) {
+            return new SetFact<>();
+        }
+
+        @Override
+        public SetFact<Var> newInitialFact() {
+            return new SetFact<>();
+        }
+    }
 }
@@ -0,0 +1,20 @@
+class Diamonds {
+
+    int diamonds(int a, int b) {
+        int x;
+        if (a > 0) {
+            x = 1;
+        } else if (b > 0) {
+            x = 2;
+        } else {
+            x = 3;
+        }
+        int y;
+        if (b > a) {
+            y = x + 1;
+        } else {
+            y = x - 1;
+        }
+        return y;
+    }
+}
@@ -0,0 +1,13 @@
+class Refine {
+
+    int refine(int x) {
+        int y = 0;
+        if (x == 5) {
+            y = x + 1; // y is 6 when refined along the true edge
+            if (y != 6) {
+                y = 0; // unreachable when refined
+            }
+        }
+        return y;
+    }
+}
@@ -0,0 +1,14 @@
+class SparseLoop {
+
+    int loop(int n) {
+        int x = 1;
+        int i = 0;
+        while (i < n) {
+            if (x != 1) {
+                x = 2; // never executed, but dense propagation meets it
+            }
+            i = i + 1;
+        }
+        return x;
+    }
+}
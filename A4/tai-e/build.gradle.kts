@@ -23,6 +23,7 @@ tasks.compileTestJava { options.encoding = "UTF-8" }
 tasks.test {
     useJUnit()
     maxHeapSize = "4G"
+    systemProperty("taie.check-cha", "true")
 }
 
 java {
@@ -0,0 +1,55 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.ifds;
+
+/**
+ * Edge function of IDE problems, which maps the value of a data-flow fact
+ * at the source of an ICFG edge (or a path) to the value of a fact at the
+ * target. The edge functions of a problem must be closed under
+ * {@link #composeWith(EdgeFunction)} and {@link #meetWith(EdgeFunction)},
+ * and form a lattice of finite height, so that the solver terminates.
+ * <p>
+ * Edge functions are compared by {@link Object#equals(Object)}, thus the
+ * implementations should override it (and {@link Object#hashCode()}).
+ *
+ * @param <V> type of values
+ */
+public interface EdgeFunction<V> {
+
+    /**
+     * @return the value at the target for given value at the source.
+     */
+    V computeTarget(V source);
+
+    /**
+     * @return the edge function which applies this function
+     * first and then {@code second}.
+     */
+    EdgeFunction<V> composeWith(EdgeFunction<V> second);
+
+    /**
+     * @return the edge function which computes the meet of the
+     * values computed by this function and {@code other}.
+     */
+    EdgeFunction<V> meetWith(EdgeFunction<V> other);
+}
@@ -0,0 +1,89 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.ifds;
+
+import pascal.taie.analysis.graph.icfg.CallEdge;
+import pascal.taie.analysis.graph.icfg.CallToReturnEdge;
+import pascal.taie.analysis.graph.icfg.NormalEdge;
+import pascal.taie.analysis.graph.icfg.ReturnEdge;
+
+/**
+ * Template interface for defining IDE (inter-procedural distributive
+ * environment) problems, which are solved by {@link IDESolver}.
+ * <p>
+ * An IDE problem extends an {@link IFDSProblem} with a value for each
+ * data-flow fact: the flow functions tell which facts hold, and the
+ * edge functions, given for each pair of facts related by a flow
+ * function, tell how the values of the facts are transformed.
+ *
+ * @param <Node> type of ICFG nodes
+ * @param <D>    type of data-flow facts
+ * @param <V>    type of values
+ */
+public interface IDEProblem<Node, D, V> extends IFDSProblem<Node, D> {
+
+    /**
+     * @return the top value of the value lattice,
+     * i.e., the value of the facts that do not hold.
+     */
+    V topValue();
+
+    /**
+     * @return the bottom value of the value lattice, which is
+     * the value of {@link #zeroValue()} at the entries of entry methods.
+     */
+    V bottomValue();
+
+    /**
+     * Meets two values.
+     */
+    V meetValue(V v1, V v2);
+
+    /**
+     * @return the identity edge function.
+     */
+    EdgeFunction<V> identityFunction();
+
+    /**
+     * @return edge function for given intra-procedural edge, which maps
+     * the value of fact {@code source} to the value of fact {@code target}.
+     */
+    EdgeFunction<V> getNormalEdgeFunction(NormalEdge<Node> edge, D source, D target);
+
+    /**
+     * @return edge function for the edge from a call site to its return site.
+     */
+    EdgeFunction<V> getCallToReturnEdgeFunction(CallToReturnEdge<Node> edge, D source, D target);
+
+    /**
+     * @return edge function which maps the value of a fact at a call site
+     * to the value of a fact at the entry of the callee.
+     */
+    EdgeFunction<V> getCallEdgeFunction(CallEdge<Node> edge, D source, D target);
+
+    /**
+     * @return edge function which maps the value of a fact at the exit
+     * of a callee to the value of a fact at the return site of the call site.
+     */
+    EdgeFunction<V> getReturnEdgeFunction(ReturnEdge<Node> edge, D source, D target);
+}
@@ -0,0 +1,63 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.ifds;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Result of {@link IDESolver}, i.e., the values of the data-flow facts
+ * that may hold before each ICFG node.
+ *
+ * @param <Node> type of ICFG nodes
+ * @param <D>    type of data-flow facts
+ * @param <V>    type of values
+ */
+public class IDEResult<Node, D, V> {
+
+    private final Map<Node, Map<D, V>> values;
+
+    private final V top;
+
+    IDEResult(Map<Node, Map<D, V>> values, V top) {
+        this.values = values;
+        this.top = top;
+    }
+
+    /**
+     * @return the facts that may hold before given node and their values,
+     * excluding the zero fact.
+     */
+    public Map<D, V> getValuesAt(Node node) {
+        return Collections.unmodifiableMap(
+                values.getOrDefault(node, Map.of()));
+    }
+
+    /**
+     * @return the value of given fact before given node,
+     * or the top value if the fact does not hold there.
+     */
+    public V getValue(Node node, D fact) {
+        return values.getOrDefault(node, Map.of()).getOrDefault(fact, top);
+    }
+}
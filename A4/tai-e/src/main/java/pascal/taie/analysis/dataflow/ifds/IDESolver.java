@@ -0,0 +1,346 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.ifds;
+
+import pascal.taie.analysis.graph.icfg.CallEdge;
+import pascal.taie.analysis.graph.icfg.CallToReturnEdge;
+import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.analysis.graph.icfg.ICFGEdge;
+import pascal.taie.analysis.graph.icfg.NormalEdge;
+import pascal.taie.analysis.graph.icfg.ReturnEdge;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Solver for {@link IDEProblem}s, following the algorithm by Sagiv, Reps
+ * and Horwitz (TCS'96). It works in two phases.
+ * <p>
+ * Phase I extends the tabulation of {@link IFDSSolver}: each path edge
+ * {@code <sp, d1> -> <n, d2>} carries a jump function, which maps the
+ * value of d1 at the entry sp of the method to the value of d2 before
+ * node n, and is the meet of the compositions of the edge functions
+ * along all paths from sp to n. The jump functions reaching the exits
+ * of methods are the summary functions, which are composed with the
+ * call and return edge functions at each call site, instead of analyzing
+ * the callees again. When the jump function of a path edge changes, the
+ * edge is processed again, until all jump functions reach fixed point.
+ * <p>
+ * Phase II computes the values. It first propagates the values of the
+ * facts at the entries of methods, from the entry methods to their
+ * callees, through the jump functions to the call sites; then the value
+ * of each fact before each node is obtained by applying the jump
+ * functions to the values at the entry of the containing method.
+ *
+ * @param <Method> type of methods
+ * @param <Node>   type of ICFG nodes
+ * @param <D>      type of data-flow facts
+ * @param <V>      type of values
+ */
+public class IDESolver<Method, Node, D, V> {
+
+    private final IDEProblem<Node, D, V> problem;
+
+    private final ICFG<Method, Node> icfg;
+
+    private final D zero;
+
+    /**
+     * Jump functions of path edges, indexed by the target node,
+     * then the target fact, and then the source fact.
+     */
+    private final Map<Node, Map<D, Map<D, EdgeFunction<V>>>> jumpFunctions = Maps.newMap();
+
+    private final Queue<PathEdge<Node, D>> workList = new ArrayDeque<>();
+
+    /**
+     * The call edges (with the facts at the call sites) that reach each
+     * pair of (callee entry, fact), i.e., the callers that are interested
+     * in its summaries.
+     */
+    private final Map<Node, MultiMap<D, Incoming<Node, D>>> incoming = Maps.newMap();
+
+    /**
+     * End summaries of each pair of (method entry, fact), i.e.,
+     * the facts that hold at the exit of the method. The summary
+     * functions are the jump functions of the exits.
+     */
+    private final Map<Node, MultiMap<D, D>> endSummaries = Maps.newMap();
+
+    /**
+     * Call sites reached by path edges in each method, indexed by
+     * the entry of the method.
+     */
+    private final MultiMap<Node, Node> callSites = Maps.newMultiMap();
+
+    public IDESolver(IDEProblem<Node, D, V> problem, ICFG<Method, Node> icfg) {
+        this.problem = problem;
+        this.icfg = icfg;
+        this.zero = problem.zeroValue();
+    }
+
+    public IDEResult<Node, D, V> solve() {
+        List<Node> entries = icfg.entryMethods().map(icfg::getEntryOf).toList();
+        // phase I: computes the jump functions
+        entries.forEach(entry ->
+                propagate(entry, zero, entry, zero, problem.identityFunction()));
+        while (!workList.isEmpty()) {
+            PathEdge<Node, D> edge = workList.poll();
+            Node node = edge.target();
+            if (icfg.isCallSite(node)) {
+                processCall(edge);
+            } else if (isExit(node)) {
+                processExit(edge);
+            } else {
+                processNormal(edge);
+            }
+        }
+        // phase II: computes the values
+        Map<Node, Map<D, V>> entryValues = computeEntryValues(entries);
+        return new IDEResult<>(computeValues(entryValues), problem.topValue());
+    }
+
+    private void processNormal(PathEdge<Node, D> edge) {
+        EdgeFunction<V> f = getJumpFunction(edge);
+        D d2 = edge.fact();
+        for (ICFGEdge<Node> out : icfg.getOutEdgesOf(edge.target())) {
+            if (out instanceof NormalEdge<Node> normal) {
+                for (D d3 : problem.getNormalFlowFunction(normal).compute(d2)) {
+                    propagate(edge.entry(), edge.source(), normal.getTarget(), d3,
+                            f.composeWith(problem.getNormalEdgeFunction(normal, d2, d3)));
+                }
+            }
+        }
+    }
+
+    private void processCall(PathEdge<Node, D> edge) {
+        Node callSite = edge.target();
+        D d2 = edge.fact();
+        EdgeFunction<V> f = getJumpFunction(edge);
+        callSites.put(edge.entry(), callSite);
+        for (ICFGEdge<Node> out : icfg.getOutEdgesOf(callSite)) {
+            if (out instanceof CallEdge<Node> call) {
+                Node calleeEntry = call.getTarget();
+                for (D d3 : problem.getCallFlowFunction(call).compute(d2)) {
+                    // explores the callee with d3 (if not explored yet)
+                    propagate(calleeEntry, d3, calleeEntry, d3,
+                            problem.identityFunction());
+                    get(incoming, calleeEntry).put(d3, new Incoming<>(call, d2));
+                    // applies the existing summaries of the callee; unlike
+                    // IFDS, this is needed whenever f changes, not only
+                    // when the call site first reaches the callee with d3
+                    EdgeFunction<V> fCall = f.composeWith(
+                            problem.getCallEdgeFunction(call, d2, d3));
+                    for (D d4 : get(endSummaries, calleeEntry).get(d3)) {
+                        applyReturn(call, d3, d4, edge.entry(), edge.source(), fCall);
+                    }
+                }
+            } else if (out instanceof CallToReturnEdge<Node> callToReturn) {
+                for (D d3 : problem.getCallToReturnFlowFunction(callToReturn)
+                        .compute(d2)) {
+                    propagate(edge.entry(), edge.source(),
+                            callToReturn.getTarget(), d3,
+                            f.composeWith(problem.getCallToReturnEdgeFunction(
+                                    callToReturn, d2, d3)));
+                }
+            }
+        }
+    }
+
+    private void processExit(PathEdge<Node, D> edge) {
+        Node entry = edge.entry();
+        D d3 = edge.source();
+        get(endSummaries, entry).put(d3, edge.fact());
+        for (Incoming<Node, D> in : get(incoming, entry).get(d3)) {
+            CallEdge<Node> call = in.call();
+            Node callerEntry = getEntryOf(call.getSource());
+            EdgeFunction<V> fCall = problem.getCallEdgeFunction(
+                    call, in.callSiteFact(), d3);
+            getJumpFunctions(call.getSource(), in.callSiteFact()).forEach(
+                    (d1, f) -> applyReturn(call, d3, edge.fact(),
+                            callerEntry, d1, f.composeWith(fCall)));
+        }
+    }
+
+    /**
+     * Propagates fact d4 at the exit of the callee of given call edge
+     * back to the return sites of the call site.
+     *
+     * @param d3          the fact at the entry of the callee
+     * @param callerEntry the entry of the caller
+     * @param d1          the fact at the entry of the caller
+     * @param f           the function from d1 at the entry of the caller
+     *                    to d3 at the entry of the callee
+     */
+    private void applyReturn(CallEdge<Node> call, D d3, D d4,
+                             Node callerEntry, D d1, EdgeFunction<V> f) {
+        Node exit = icfg.getExitOf(icfg.getContainingMethodOf(call.getTarget()));
+        EdgeFunction<V> fExit = f.composeWith(getJumpFunctions(exit, d4).get(d3));
+        for (ICFGEdge<Node> out : icfg.getOutEdgesOf(exit)) {
+            if (out instanceof ReturnEdge<Node> ret &&
+                    ret.getCallSite().equals(call.getSource())) {
+                for (D d5 : problem.getReturnFlowFunction(ret).compute(d4)) {
+                    propagate(callerEntry, d1, ret.getTarget(), d5,
+                            fExit.composeWith(problem.getReturnEdgeFunction(ret, d4, d5)));
+                }
+            }
+        }
+    }
+
+    /**
+     * Meets f into the jump function of path edge
+     * {@code <entry, source> -> <target, fact>}, and processes
+     * the path edge again if its jump function changes.
+     */
+    private void propagate(Node entry, D source, Node target, D fact,
+                           EdgeFunction<V> f) {
+        Map<D, EdgeFunction<V>> functions = getJumpFunctions(target, fact);
+        EdgeFunction<V> old = functions.get(source);
+        EdgeFunction<V> meet = old == null ? f : old.meetWith(f);
+        if (!meet.equals(old)) {
+            functions.put(source, meet);
+            workList.add(new PathEdge<>(entry, source, target, fact));
+        }
+    }
+
+    private EdgeFunction<V> getJumpFunction(PathEdge<Node, D> edge) {
+        return getJumpFunctions(edge.target(), edge.fact()).get(edge.source());
+    }
+
+    /**
+     * @return the jump functions of the path edges reaching given fact
+     * before given node, indexed by the source facts.
+     */
+    private Map<D, EdgeFunction<V>> getJumpFunctions(Node node, D fact) {
+        return jumpFunctions.computeIfAbsent(node, __ -> Maps.newMap())
+                .computeIfAbsent(fact, __ -> Maps.newMap());
+    }
+
+    /**
+     * @return the values of the facts at the entries of the methods.
+     */
+    private Map<Node, Map<D, V>> computeEntryValues(List<Node> entries) {
+        Map<Node, Map<D, V>> entryValues = Maps.newMap();
+        Queue<EntryFact<Node, D>> valueWorkList = new ArrayDeque<>();
+        for (Node entry : entries) {
+            if (meetValue(entryValues, entry, zero, problem.bottomValue())) {
+                valueWorkList.add(new EntryFact<>(entry, zero));
+            }
+        }
+        while (!valueWorkList.isEmpty()) {
+            EntryFact<Node, D> entryFact = valueWorkList.poll();
+            V value = entryValues.get(entryFact.entry()).get(entryFact.fact());
+            for (Node callSite : callSites.get(entryFact.entry())) {
+                jumpFunctions.get(callSite).forEach((d2, functions) -> {
+                    EdgeFunction<V> f = functions.get(entryFact.fact());
+                    if (f == null) {
+                        return;
+                    }
+                    V v2 = f.computeTarget(value);
+                    for (ICFGEdge<Node> out : icfg.getOutEdgesOf(callSite)) {
+                        if (out instanceof CallEdge<Node> call) {
+                            for (D d3 : problem.getCallFlowFunction(call).compute(d2)) {
+                                V v3 = problem.getCallEdgeFunction(call, d2, d3)
+                                        .computeTarget(v2);
+                                if (meetValue(entryValues, call.getTarget(), d3, v3)) {
+                                    valueWorkList.add(new EntryFact<>(call.getTarget(), d3));
+                                }
+                            }
+                        }
+                    }
+                });
+            }
+        }
+        return entryValues;
+    }
+
+    /**
+     * @return the values of the facts before each node, excluding the zero fact.
+     */
+    private Map<Node, Map<D, V>> computeValues(Map<Node, Map<D, V>> entryValues) {
+        Map<Node, Map<D, V>> values = Maps.newMap();
+        jumpFunctions.forEach((node, targets) -> {
+            Map<D, V> sourceValues = entryValues.getOrDefault(getEntryOf(node), Map.of());
+            targets.forEach((d2, functions) -> {
+                if (d2.equals(zero)) {
+                    return;
+                }
+                functions.forEach((d1, f) -> meetValue(values, node, d2,
+                        f.computeTarget(sourceValues.getOrDefault(d1, problem.topValue()))));
+            });
+        });
+        return values;
+    }
+
+    /**
+     * Meets given value into the value of given fact at given node.
+     *
+     * @return true if the value of the fact changes, otherwise false.
+     */
+    private boolean meetValue(Map<Node, Map<D, V>> values, Node node, D fact, V value) {
+        Map<D, V> factValues = values.computeIfAbsent(node, __ -> Maps.newMap());
+        V old = factValues.get(fact);
+        V meet = old == null ? value : problem.meetValue(old, value);
+        if (!meet.equals(old)) {
+            factValues.put(fact, meet);
+            return true;
+        }
+        return false;
+    }
+
+    private Node getEntryOf(Node node) {
+        return icfg.getEntryOf(icfg.getContainingMethodOf(node));
+    }
+
+    private boolean isExit(Node node) {
+        return icfg.getExitOf(icfg.getContainingMethodOf(node)).equals(node);
+    }
+
+    private static <Node, K, V> MultiMap<K, V> get(
+            Map<Node, MultiMap<K, V>> table, Node node) {
+        return table.computeIfAbsent(node, __ -> Maps.newMultiMap());
+    }
+
+    /**
+     * Path edge {@code <entry, source> -> <target, fact>}.
+     */
+    private record PathEdge<Node, D>(Node entry, D source, Node target, D fact) {
+    }
+
+    /**
+     * Records that a call edge, whose call site is reached
+     * by fact {@code callSiteFact}, calls a callee.
+     */
+    private record Incoming<Node, D>(CallEdge<Node> call, D callSiteFact) {
+    }
+
+    /**
+     * A fact at the entry of a method.
+     */
+    private record EntryFact<Node, D>(Node entry, D fact) {
+    }
+}
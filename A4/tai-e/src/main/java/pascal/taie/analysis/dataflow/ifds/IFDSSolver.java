@@ -0,0 +1,211 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.ifds;
+
+import pascal.taie.analysis.graph.icfg.CallEdge;
+import pascal.taie.analysis.graph.icfg.CallToReturnEdge;
+import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.analysis.graph.icfg.ICFGEdge;
+import pascal.taie.analysis.graph.icfg.NormalEdge;
+import pascal.taie.analysis.graph.icfg.ReturnEdge;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Tabulation solver for {@link IFDSProblem}s, following the algorithm
+ * by Reps, Horwitz and Sagiv (POPL'95).
+ * <p>
+ * The solver computes path edges {@code <sp, d1> -> <n, d2>}, each of
+ * which means that fact d2 holds before node n if fact d1 holds at the
+ * entry sp of the method containing n. The path edges reaching the exits
+ * of methods are recorded as summary edges (end summaries), which are
+ * reused by all call sites that reach the callee with the same fact.
+ * The callees are explored on demand, i.e., a method is processed only
+ * when some fact flows into its entry, and only for such facts, so the
+ * workload is proportional to the reachable facts instead of the size
+ * of the ICFG.
+ *
+ * @param <Method> type of methods
+ * @param <Node>   type of ICFG nodes
+ * @param <D>      type of data-flow facts
+ */
+public class IFDSSolver<Method, Node, D> {
+
+    private final IFDSProblem<Node, D> problem;
+
+    private final ICFG<Method, Node> icfg;
+
+    private final D zero;
+
+    /**
+     * Path edges, indexed by the target node and then the source fact.
+     */
+    private final Map<Node, MultiMap<D, D>> pathEdges = Maps.newMap();
+
+    private final Queue<PathEdge<Node, D>> workList = new ArrayDeque<>();
+
+    /**
+     * The call sites that reach each pair of (callee entry, fact),
+     * i.e., the callers that are interested in its summaries.
+     */
+    private final Map<Node, MultiMap<D, Incoming<Node, D>>> incoming = Maps.newMap();
+
+    /**
+     * End summaries of each pair of (method entry, fact), i.e.,
+     * the facts that hold at the exit of the method.
+     */
+    private final Map<Node, MultiMap<D, D>> endSummaries = Maps.newMap();
+
+    public IFDSSolver(IFDSProblem<Node, D> problem, ICFG<Method, Node> icfg) {
+        this.problem = problem;
+        this.icfg = icfg;
+        this.zero = problem.zeroValue();
+    }
+
+    public IFDSResult<Node, D> solve() {
+        icfg.entryMethods().forEach(method -> {
+            Node entry = icfg.getEntryOf(method);
+            propagate(entry, zero, entry, zero);
+        });
+        while (!workList.isEmpty()) {
+            PathEdge<Node, D> edge = workList.poll();
+            Node node = edge.target();
+            if (icfg.isCallSite(node)) {
+                processCall(edge);
+            } else if (isExit(node)) {
+                processExit(edge);
+            } else {
+                processNormal(edge);
+            }
+        }
+        return collectResult();
+    }
+
+    private void processNormal(PathEdge<Node, D> edge) {
+        for (ICFGEdge<Node> out : icfg.getOutEdgesOf(edge.target())) {
+            if (out instanceof NormalEdge<Node> normal) {
+                for (D d3 : problem.getNormalFlowFunction(normal)
+                        .compute(edge.fact())) {
+                    propagate(edge.entry(), edge.source(), normal.getTarget(), d3);
+                }
+            }
+        }
+    }
+
+    private void processCall(PathEdge<Node, D> edge) {
+        Node callSite = edge.target();
+        D d2 = edge.fact();
+        for (ICFGEdge<Node> out : icfg.getOutEdgesOf(callSite)) {
+            if (out instanceof CallEdge<Node> call) {
+                Node calleeEntry = call.getTarget();
+                for (D d3 : problem.getCallFlowFunction(call).compute(d2)) {
+                    // explores the callee with d3 (if not explored yet)
+                    propagate(calleeEntry, d3, calleeEntry, d3);
+                    Incoming<Node, D> in = new Incoming<>(
+                            edge.entry(), edge.source(), callSite);
+                    if (get(incoming, calleeEntry).put(d3, in)) {
+                        // applies the existing summaries of the callee
+                        for (D d4 : get(endSummaries, calleeEntry).get(d3)) {
+                            Node exit = icfg.getExitOf(
+                                    icfg.getContainingMethodOf(calleeEntry));
+                            applyReturn(exit, d4, in);
+                        }
+                    }
+                }
+            } else if (out instanceof CallToReturnEdge<Node> callToReturn) {
+                for (D d3 : problem.getCallToReturnFlowFunction(callToReturn)
+                        .compute(d2)) {
+                    propagate(edge.entry(), edge.source(),
+                            callToReturn.getTarget(), d3);
+                }
+            }
+        }
+    }
+
+    private void processExit(PathEdge<Node, D> edge) {
+        Node entry = edge.entry();
+        if (get(endSummaries, entry).put(edge.source(), edge.fact())) {
+            for (Incoming<Node, D> in : get(incoming, entry).get(edge.source())) {
+                applyReturn(edge.target(), edge.fact(), in);
+            }
+        }
+    }
+
+    /**
+     * Propagates fact d4 at given exit back to the return sites
+     * of the call site in given incoming record.
+     */
+    private void applyReturn(Node exit, D d4, Incoming<Node, D> in) {
+        for (ICFGEdge<Node> out : icfg.getOutEdgesOf(exit)) {
+            if (out instanceof ReturnEdge<Node> ret &&
+                    ret.getCallSite().equals(in.callSite())) {
+                for (D d5 : problem.getReturnFlowFunction(ret).compute(d4)) {
+                    propagate(in.callerEntry(), in.callerFact(),
+                            ret.getTarget(), d5);
+                }
+            }
+        }
+    }
+
+    private void propagate(Node entry, D source, Node target, D fact) {
+        if (get(pathEdges, target).put(source, fact)) {
+            workList.add(new PathEdge<>(entry, source, target, fact));
+        }
+    }
+
+    private boolean isExit(Node node) {
+        return icfg.getExitOf(icfg.getContainingMethodOf(node)).equals(node);
+    }
+
+    private static <Node, K, V> MultiMap<K, V> get(
+            Map<Node, MultiMap<K, V>> table, Node node) {
+        return table.computeIfAbsent(node, __ -> Maps.newMultiMap());
+    }
+
+    private IFDSResult<Node, D> collectResult() {
+        MultiMap<Node, D> facts = Maps.newMultiMap();
+        pathEdges.forEach((node, edges) -> edges.forEach((__, fact) -> {
+            if (!fact.equals(zero)) {
+                facts.put(node, fact);
+            }
+        }));
+        return new IFDSResult<>(facts);
+    }
+
+    /**
+     * Path edge {@code <entry, source> -> <target, fact>}.
+     */
+    private record PathEdge<Node, D>(Node entry, D source, Node target, D fact) {
+    }
+
+    /**
+     * Records that a call site, reached by path edge
+     * {@code <callerEntry, callerFact> -> <callSite, _>}, calls a callee.
+     */
+    private record Incoming<Node, D>(Node callerEntry, D callerFact, Node callSite) {
+    }
+}
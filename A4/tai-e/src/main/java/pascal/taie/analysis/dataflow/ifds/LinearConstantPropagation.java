@@ -0,0 +1,313 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.ifds;
+
+import pascal.taie.World;
+import pascal.taie.analysis.ProgramAnalysis;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.analysis.constprop.Value;
+import pascal.taie.analysis.graph.icfg.CallEdge;
+import pascal.taie.analysis.graph.icfg.CallToReturnEdge;
+import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.analysis.graph.icfg.ICFGBuilder;
+import pascal.taie.analysis.graph.icfg.NormalEdge;
+import pascal.taie.analysis.graph.icfg.ReturnEdge;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.ArithmeticExp;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.RValue;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.DefinitionStmt;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Sets;
+
+import javax.annotation.Nullable;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Linear constant propagation for int values, solved as an IDE problem.
+ * <p>
+ * The facts are the variables that may be defined, and the values are
+ * the constant propagation lattice. The edge functions are in the form
+ * of {@code λx. a * x + b}, thus a definition like {@code y = x * 2 + 1}
+ * (in Tai-e IR, the constants are held by temporary variables) is
+ * modeled by an edge from x to y, and the summary of a method maps the
+ * values of its parameters to the values at its exit symbolically.
+ * Unlike {@link pascal.taie.analysis.dataflow.inter.InterConstantPropagation},
+ * which meets the facts from all call sites at the entry of a callee, the
+ * values returned by a callee are computed separately for each call site.
+ * The definitions that are not linear in at most one variable,
+ * e.g., {@code z = x * y}, give NAC.
+ */
+public class LinearConstantPropagation extends ProgramAnalysis
+        implements IDEProblem<Stmt, Var, Value> {
+
+    public static final String ID = "linear-constprop";
+
+    private static final Var ZERO = new Var(null, "<zero>", null, -1);
+
+    private final ConstantPropagation cp;
+
+    public LinearConstantPropagation(AnalysisConfig config) {
+        super(config);
+        cp = new ConstantPropagation(new AnalysisConfig(ConstantPropagation.ID));
+    }
+
+    @Override
+    public IDEResult<Stmt, Var, Value> analyze() {
+        ICFG<JMethod, Stmt> icfg = World.get().getResult(ICFGBuilder.ID);
+        return new IDESolver<>(this, icfg).solve();
+    }
+
+    @Override
+    public Var zeroValue() {
+        return ZERO;
+    }
+
+    @Override
+    public Value topValue() {
+        return Value.getUndef();
+    }
+
+    @Override
+    public Value bottomValue() {
+        return Value.getNAC();
+    }
+
+    @Override
+    public Value meetValue(Value v1, Value v2) {
+        return cp.meetValue(v1, v2);
+    }
+
+    @Override
+    public EdgeFunction<Value> identityFunction() {
+        return LinearFunction.IDENTITY;
+    }
+
+    @Override
+    public FlowFunction<Var> getNormalFlowFunction(NormalEdge<Stmt> edge) {
+        Var def = getDef(edge.getSource());
+        if (def == null) {
+            return FlowFunction.identity();
+        }
+        Linear linear = toLinear(edge.getSource());
+        return d -> {
+            if (d == ZERO) {
+                // constants and non-linear definitions are generated
+                // from the zero fact
+                return linear == null || linear.var() == null
+                        ? Set.of(ZERO, def) : Set.of(ZERO);
+            }
+            Set<Var> result = Sets.newHybridSet();
+            if (d != def) {
+                result.add(d);
+            }
+            if (linear != null && linear.var() == d) {
+                result.add(def);
+            }
+            return result;
+        };
+    }
+
+    @Override
+    public EdgeFunction<Value> getNormalEdgeFunction(
+            NormalEdge<Stmt> edge, Var source, Var target) {
+        Var def = getDef(edge.getSource());
+        if (def != null && target == def) {
+            Linear linear = toLinear(edge.getSource());
+            if (linear == null) {
+                return LinearFunction.NAC;
+            }
+            // for constants, the function ignores the value of the zero fact
+            return new LinearFunction(linear.a(), linear.b(), false);
+        }
+        return LinearFunction.IDENTITY;
+    }
+
+    @Override
+    public FlowFunction<Var> getCallToReturnFlowFunction(CallToReturnEdge<Stmt> edge) {
+        Var result = ((Invoke) edge.getSource()).getResult();
+        // the result is defined by the callees
+        return d -> d == result ? Set.of() : Set.of(d);
+    }
+
+    @Override
+    public EdgeFunction<Value> getCallToReturnEdgeFunction(
+            CallToReturnEdge<Stmt> edge, Var source, Var target) {
+        return LinearFunction.IDENTITY;
+    }
+
+    @Override
+    public FlowFunction<Var> getCallFlowFunction(CallEdge<Stmt> edge) {
+        List<Var> args = ((Invoke) edge.getSource()).getInvokeExp().getArgs();
+        IR calleeIR = edge.getCallee().getIR();
+        return d -> {
+            if (d == ZERO) {
+                return Set.of(ZERO);
+            }
+            Set<Var> params = Sets.newHybridSet();
+            for (int i = 0; i < args.size(); ++i) {
+                if (args.get(i) == d) {
+                    params.add(calleeIR.getParam(i));
+                }
+            }
+            return params;
+        };
+    }
+
+    @Override
+    public EdgeFunction<Value> getCallEdgeFunction(
+            CallEdge<Stmt> edge, Var source, Var target) {
+        return LinearFunction.IDENTITY;
+    }
+
+    @Override
+    public FlowFunction<Var> getReturnFlowFunction(ReturnEdge<Stmt> edge) {
+        Var result = ((Invoke) edge.getCallSite()).getResult();
+        return d -> {
+            if (d == ZERO) {
+                return Set.of(ZERO);
+            }
+            return result != null && ConstantPropagation.canHoldInt(result)
+                    && edge.getReturnVars().contains(d)
+                    ? Set.of(result) : Set.of();
+        };
+    }
+
+    @Override
+    public EdgeFunction<Value> getReturnEdgeFunction(
+            ReturnEdge<Stmt> edge, Var source, Var target) {
+        return LinearFunction.IDENTITY;
+    }
+
+    /**
+     * @return the variable defined by given statement if it can hold
+     * integer, otherwise null.
+     */
+    @Nullable
+    private static Var getDef(Stmt stmt) {
+        if (stmt instanceof DefinitionStmt<?, ?> def &&
+                def.getLValue() instanceof Var var &&
+                ConstantPropagation.canHoldInt(var)) {
+            return var;
+        }
+        return null;
+    }
+
+    /**
+     * @return the right-hand side of given definition as a linear
+     * expression, or null if it is not linear in at most one variable.
+     */
+    @Nullable
+    private static Linear toLinear(Stmt stmt) {
+        RValue rValue = ((DefinitionStmt<?, ?>) stmt).getRValue();
+        if (rValue instanceof IntLiteral literal) {
+            return new Linear(null, 0, literal.getValue());
+        } else if (rValue instanceof Var var) {
+            return toLinear(var);
+        } else if (rValue instanceof ArithmeticExp exp) {
+            Linear l1 = toLinear(exp.getOperand1());
+            Linear l2 = toLinear(exp.getOperand2());
+            if (l1.var() != null && l2.var() != null) {
+                return null;
+            }
+            Var var = l1.var() != null ? l1.var() : l2.var();
+            return switch (exp.getOperator()) {
+                case ADD -> new Linear(var, l1.a() + l2.a(), l1.b() + l2.b());
+                case SUB -> new Linear(var, l1.a() - l2.a(), l1.b() - l2.b());
+                case MUL -> l1.var() == null
+                        ? new Linear(var, l1.b() * l2.a(), l1.b() * l2.b())
+                        : new Linear(var, l1.a() * l2.b(), l1.b() * l2.b());
+                default -> null;
+            };
+        }
+        return null;
+    }
+
+    private static Linear toLinear(Var var) {
+        if (var.isTempConst() &&
+                var.getTempConstValue() instanceof IntLiteral literal) {
+            return new Linear(null, 0, literal.getValue());
+        }
+        return new Linear(var, 1, 0);
+    }
+
+    /**
+     * Linear expression {@code a * var + b}, where var is null
+     * if the expression is a constant (then a is 0).
+     */
+    private record Linear(@Nullable Var var, int a, int b) {
+    }
+
+    /**
+     * Edge function {@code λx. a * x + b}, or the function that always
+     * gives NAC if {@code nac} is true. If a is 0, the function gives
+     * constant b, even for UNDEF and NAC; otherwise, it keeps UNDEF and NAC.
+     */
+    private record LinearFunction(int a, int b, boolean nac)
+            implements EdgeFunction<Value> {
+
+        private static final LinearFunction IDENTITY = new LinearFunction(1, 0, false);
+
+        private static final LinearFunction NAC = new LinearFunction(0, 0, true);
+
+        @Override
+        public Value computeTarget(Value source) {
+            if (nac) {
+                return Value.getNAC();
+            } else if (a == 0) {
+                return Value.makeConstant(b);
+            } else if (source.isConstant()) {
+                return Value.makeConstant(a * source.getConstant() + b);
+            } else {
+                return source;
+            }
+        }
+
+        @Override
+        public EdgeFunction<Value> composeWith(EdgeFunction<Value> second) {
+            LinearFunction g = (LinearFunction) second;
+            if (g.nac || g.a == 0) {
+                return g;
+            } else if (nac) {
+                return NAC;
+            }
+            int ga = g.a * a;
+            if (a != 0 && ga == 0) {
+                // the product overflows to 0, but the composed
+                // function still keeps UNDEF and NAC
+                return NAC;
+            }
+            return new LinearFunction(ga, g.a * b + g.b, false);
+        }
+
+        @Override
+        public EdgeFunction<Value> meetWith(EdgeFunction<Value> other) {
+            return equals(other) ? this : NAC;
+        }
+    }
+}
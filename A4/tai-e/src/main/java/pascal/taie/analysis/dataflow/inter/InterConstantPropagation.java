@@ -24,6 +24,7 @@ package pascal.taie.analysis.dataflow.inter;
 
 import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
 import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.analysis.constprop.Value;
 import pascal.taie.analysis.graph.cfg.CFG;
 import pascal.taie.analysis.graph.cfg.CFGBuilder;
 import pascal.taie.analysis.graph.icfg.CallEdge;
@@ -38,6 +39,8 @@ import pascal.taie.ir.stmt.Invoke;
 import pascal.taie.ir.stmt.Stmt;
 import pascal.taie.language.classes.JMethod;
 
+import java.util.List;
+
 /**
  * Implementation of interprocedural constant propagation for int values.
  */
@@ -74,39 +77,70 @@ public class InterConstantPropagation extends
         cp.meetInto(fact, target);
     }
 
+    @Override
+    public boolean meetIntoChanged(CPFact fact, CPFact target) {
+        boolean changed = false;
+        for (Var var : fact.keySet()) {
+            changed |= target.update(var,
+                    cp.meetValue(fact.get(var), target.get(var)));
+        }
+        return changed;
+    }
+
     @Override
     protected boolean transferCallNode(Stmt stmt, CPFact in, CPFact out) {
-        // TODO - finish me
-        return false;
+        return out.copyFrom(in);
     }
 
     @Override
     protected boolean transferNonCallNode(Stmt stmt, CPFact in, CPFact out) {
-        // TODO - finish me
-        return false;
+        return cp.transferNode(stmt, in, out);
     }
 
     @Override
     protected CPFact transferNormalEdge(NormalEdge<Stmt> edge, CPFact out) {
-        // TODO - finish me
-        return null;
+        return out;
     }
 
     @Override
     protected CPFact transferCallToReturnEdge(CallToReturnEdge<Stmt> edge, CPFact out) {
-        // TODO - finish me
-        return null;
+        // the value of the variable receiving the call result
+        // is given by the return edges
+        CPFact result = out.copy();
+        Var lhs = ((Invoke) edge.getSource()).getResult();
+        if (lhs != null) {
+            result.remove(lhs);
+        }
+        return result;
     }
 
     @Override
     protected CPFact transferCallEdge(CallEdge<Stmt> edge, CPFact callSiteOut) {
-        // TODO - finish me
-        return null;
+        // passes arguments to the parameters of callee
+        InvokeExp invokeExp = ((Invoke) edge.getSource()).getInvokeExp();
+        List<Var> params = edge.getCallee().getIR().getParams();
+        CPFact result = newInitialFact();
+        for (int i = 0; i < params.size(); ++i) {
+            Var param = params.get(i);
+            if (ConstantPropagation.canHoldInt(param)) {
+                result.update(param, callSiteOut.get(invokeExp.getArg(i)));
+            }
+        }
+        return result;
     }
 
     @Override
     protected CPFact transferReturnEdge(ReturnEdge<Stmt> edge, CPFact returnOut) {
-        // TODO - finish me
-        return null;
+        // passes return value to the variable receiving the call result
+        CPFact result = newInitialFact();
+        Var lhs = ((Invoke) edge.getCallSite()).getResult();
+        if (lhs != null && ConstantPropagation.canHoldInt(lhs)) {
+            Value value = Value.getUndef();
+            for (Var retVar : edge.getReturnVars()) {
+                value = cp.meetValue(value, returnOut.get(retVar));
+            }
+            result.update(lhs, value);
+        }
+        return result;
     }
 }
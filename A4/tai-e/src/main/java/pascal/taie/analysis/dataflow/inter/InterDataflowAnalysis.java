@@ -54,6 +54,15 @@ public interface InterDataflowAnalysis<Node, Fact> {
      */
     void meetInto(Fact fact, Fact target);
 
+    /**
+     * Meets a fact into another (target) fact like {@link #meetInto},
+     * and reports the change, so that the solver can check whether
+     * a fact is covered by the target without copying the target.
+     *
+     * @return true if the target changed, otherwise false.
+     */
+    boolean meetIntoChanged(Fact fact, Fact target);
+
     /**
      * Node Transfer function for the analysis.
      * The function transfers data-flow from in (out) fact to out (in) fact
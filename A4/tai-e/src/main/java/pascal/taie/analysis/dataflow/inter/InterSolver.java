@@ -23,11 +23,21 @@
 package pascal.taie.analysis.dataflow.inter;
 
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.icfg.CallEdge;
 import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.analysis.graph.icfg.ICFGEdge;
+import pascal.taie.analysis.graph.icfg.ReturnEdge;
+import pascal.taie.config.ConfigException;
+import pascal.taie.util.collection.Maps;
 import pascal.taie.util.collection.SetQueue;
+import pascal.taie.util.collection.Sets;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.stream.Collectors;
 
 /**
@@ -41,28 +51,431 @@ class InterSolver<Method, Node, Fact> {
 
     private final ICFG<Method, Node> icfg;
 
+    /**
+     * Kind of the solving algorithm, i.e., "worklist", "summary" or "parallel".
+     */
+    private final String kind;
+
     private DataflowResult<Node, Fact> result;
 
     private Queue<Node> workList;
 
+    private Set<Node> boundaries;
+
+    /**
+     * Methods whose nodes have been discovered by the solver.
+     */
+    private Set<Method> discovered;
+
+    /**
+     * Nodes that have been processed at least once. When a node is first
+     * processed, its OUT fact is propagated to the nodes in other methods
+     * even if it does not change, as the targets in the methods discovered
+     * earlier have not taken the fact.
+     */
+    private Set<Node> visited;
+
+    /**
+     * Work-list of the nodes in each method for summary-based solving.
+     */
+    private Map<Method, Queue<Node>> localWorkLists;
+
+    /**
+     * Work-list of the methods for summary-based solving.
+     */
+    private Queue<Method> methods;
+
+    /**
+     * Summaries of the methods that have been called,
+     * which are used by summary-based solving.
+     */
+    private Map<Method, Summary<Fact>> summaries;
+
     InterSolver(InterDataflowAnalysis<Node, Fact> analysis,
                 ICFG<Method, Node> icfg) {
+        this(analysis, icfg, "worklist");
+    }
+
+    InterSolver(InterDataflowAnalysis<Node, Fact> analysis,
+                ICFG<Method, Node> icfg, String kind) {
         this.analysis = analysis;
         this.icfg = icfg;
+        this.kind = kind;
     }
 
     DataflowResult<Node, Fact> solve() {
         result = new DataflowResult<>();
         initialize();
-        doSolve();
+        switch (kind) {
+            case "worklist" -> doSolve();
+            case "summary" -> doSolveWithSummaries();
+            case "parallel" -> doSolveInParallel();
+            default -> throw new ConfigException(
+                    "Unknown inter-procedural solver: " + kind);
+        }
         return result;
     }
 
     private void initialize() {
-        // TODO - finish me
+        boundaries = icfg.entryMethods()
+                .map(icfg::getEntryOf)
+                .collect(Collectors.toSet());
+        discovered = Sets.newSet();
+        visited = Sets.newSet();
+    }
+
+    /**
+     * Initializes the facts of the nodes in given method if the method
+     * is met for the first time. The solvers discover the methods from
+     * the entry methods along the call edges, instead of iterating over
+     * the whole ICFG, so that a lazily-built ICFG only materializes
+     * the methods touched by the solvers.
+     *
+     * @return the nodes (except the boundaries) of given method if it is
+     * newly discovered, otherwise an empty list.
+     */
+    private List<Node> discover(Method method) {
+        if (!discovered.add(method)) {
+            return List.of();
+        }
+        List<Node> nodes = new ArrayList<>();
+        for (Node node : icfg.getNodesOf(method)) {
+            result.setInFact(node, analysis.newInitialFact());
+            if (boundaries.contains(node)) {
+                result.setOutFact(node, analysis.newBoundaryFact(node));
+            } else {
+                result.setOutFact(node, analysis.newInitialFact());
+                nodes.add(node);
+            }
+        }
+        return nodes;
     }
 
     private void doSolve() {
-        // TODO - finish me
+        workList = new SetQueue<>();
+        icfg.entryMethods().forEach(m -> workList.addAll(discover(m)));
+        while (!workList.isEmpty()) {
+            Node node = workList.poll();
+            if (icfg.isCallSite(node)) {
+                for (Method callee : icfg.getCalleesOf(node)) {
+                    workList.addAll(discover(callee));
+                }
+            }
+            if (processNode(node) | visited.add(node)) {
+                for (Node succ : icfg.getSuccsOf(node)) {
+                    // the nodes of undiscovered methods will be
+                    // processed when the methods are discovered
+                    if (result.getInFact(succ) != null) {
+                        workList.add(succ);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Solves the methods one at a time, and answers the calls to the
+     * methods that have been solved by their summaries.
+     * <p>
+     * As the analysis is context-insensitive, each method has one summary,
+     * which maps the input of the method (i.e., the IN fact of its entry,
+     * the meet of the facts passed by all its call sites) to the output
+     * (i.e., the OUT fact of its exit when its nodes were last solved).
+     * The nodes of a method are kept in a local work-list, which is drained
+     * before moving to next method, and then the output of its summary is
+     * updated. The call edges and return edges are not traversed as usual:
+     * <ul>
+     *     <li>When a call site passes a fact to a callee, and the fact is
+     *     covered by the input of the summary of the callee (i.e., meeting
+     *     the fact into the input does not change it), then the call is
+     *     answered by the summary, and the nodes of the callee are not
+     *     entered. Otherwise, the fact is met into the input, and the
+     *     callee is entered from its entry.</li>
+     *     <li>The return sites take the outputs of the summaries of the
+     *     callees instead of the OUT facts of their exits, and they are
+     *     re-processed only when the outputs change.</li>
+     * </ul>
+     * The solving still reaches the same fixed point as {@link #doSolve()},
+     * as every node is processed at least once, and the input and output
+     * of each summary finally equal the IN fact of the entry and the OUT
+     * fact of the exit, respectively.
+     */
+    private void doSolveWithSummaries() {
+        localWorkLists = Maps.newMap();
+        methods = new SetQueue<>();
+        summaries = Maps.newMap();
+        icfg.entryMethods().forEach(this::enterMethod);
+        while (!methods.isEmpty()) {
+            Method method = methods.poll();
+            Queue<Node> localWorkList = getLocalWorkList(method);
+            while (!localWorkList.isEmpty()) {
+                Node node = localWorkList.poll();
+                boolean changed = processNodeWithSummaries(node);
+                boolean first = visited.add(node);
+                for (ICFGEdge<Node> edge : icfg.getOutEdgesOf(node)) {
+                    if (edge instanceof CallEdge<Node> callEdge) {
+                        // the callees are called when the call site
+                        // is first processed, even if it does not change
+                        if (changed || first) {
+                            call(callEdge, icfg.getContainingMethodOf(
+                                    callEdge.getTarget()));
+                        }
+                    } else if (changed && !(edge instanceof ReturnEdge)) {
+                        localWorkList.add(edge.getTarget());
+                    }
+                }
+            }
+            updateOutput(method);
+        }
+    }
+
+    /**
+     * Passes the fact along given call edge to the callee, and enters
+     * the callee if the fact is not covered by the input of its summary.
+     */
+    private void call(CallEdge<Node> edge, Method callee) {
+        Node entry = edge.getTarget();
+        Fact fact = analysis.transferEdge(
+                edge, result.getOutFact(edge.getSource()));
+        Summary<Fact> summary = summaries.get(callee);
+        if (summary == null) {
+            enterMethod(callee);
+            summary = new Summary<>(result.getInFact(entry));
+            summaries.put(callee, summary);
+            analysis.meetInto(fact, summary.input);
+        } else if (analysis.meetIntoChanged(fact, summary.input)) {
+            getLocalWorkList(callee).add(entry);
+            methods.add(callee);
+        }
+    }
+
+    /**
+     * Updates the output of the summary of given method after its nodes
+     * have been solved, and re-processes the return sites of its callers
+     * if the output changes.
+     */
+    private void updateOutput(Method method) {
+        Summary<Fact> summary = summaries.get(method);
+        if (summary == null) { // entry methods have no callers
+            return;
+        }
+        Fact exitOut = result.getOutFact(icfg.getExitOf(method));
+        if (!exitOut.equals(summary.output)) {
+            summary.output = copyOf(exitOut);
+            for (Node callSite : icfg.getCallersOf(method)) {
+                // undiscovered callers will read the output
+                // when they are entered
+                Method caller = icfg.getContainingMethodOf(callSite);
+                if (discovered.contains(caller)) {
+                    getLocalWorkList(caller).addAll(icfg.getReturnSitesOf(callSite));
+                    methods.add(caller);
+                }
+            }
+        }
+    }
+
+    /**
+     * Processes given node like {@link #processNode(Object)}, except that
+     * the facts along the call edges have been met into the IN facts
+     * of the entries by {@link #call}, and the facts along the return
+     * edges are given by the outputs of the summaries.
+     *
+     * @return true if the OUT fact of the node changed, otherwise false.
+     */
+    private boolean processNodeWithSummaries(Node node) {
+        Fact in = result.getInFact(node);
+        for (ICFGEdge<Node> edge : icfg.getInEdgesOf(node)) {
+            if (edge instanceof ReturnEdge) {
+                Summary<Fact> summary = summaries.get(
+                        icfg.getContainingMethodOf(edge.getSource()));
+                if (summary != null && summary.output != null) {
+                    analysis.meetInto(analysis.transferEdge(
+                            edge, summary.output), in);
+                }
+            } else if (!(edge instanceof CallEdge)) {
+                analysis.meetInto(analysis.transferEdge(
+                        edge, result.getOutFact(edge.getSource())), in);
+            }
+        }
+        return analysis.transferNode(node, in, result.getOutFact(node));
+    }
+
+    /**
+     * @return a copy of given fact, which is obtained by meeting
+     * the fact into an initial fact (i.e., the top of the lattice).
+     */
+    private Fact copyOf(Fact fact) {
+        Fact copy = analysis.newInitialFact();
+        analysis.meetInto(fact, copy);
+        return copy;
+    }
+
+    /**
+     * Summary of a method for {@link #doSolveWithSummaries()}.
+     */
+    private static class Summary<Fact> {
+
+        /**
+         * Input of the method, which is the IN fact of its entry.
+         */
+        private final Fact input;
+
+        /**
+         * Output of the method, i.e., the OUT fact of its exit when
+         * its nodes were last solved, or null if they have not been solved.
+         */
+        private Fact output;
+
+        private Summary(Fact input) {
+            this.input = input;
+        }
+    }
+
+    /**
+     * Solves the methods in parallel rounds. The nodes are partitioned by
+     * their containing methods, and in each round, every method that has
+     * pending work drains its local work-list in its own task.
+     * <p>
+     * A task only reads and writes the facts of the nodes in its own method.
+     * The facts flowing along the edges across methods (i.e., call edges
+     * and return edges) are transferred by the task of the source method,
+     * and sent to the mailbox of the target method, which is a lock-free
+     * queue. The messages are met into the IN facts of the targets when
+     * the target method starts its next run. As the facts only descend
+     * in the lattice, meeting all messages along an edge gives the same
+     * IN fact as meeting the latest one, thus the result is the same as
+     * {@link #doSolve()} regardless of the scheduling of the tasks.
+     * <p>
+     * The task of a method is created when the first message is sent to
+     * the method, and the method is discovered at the beginning of the
+     * next round, which is done sequentially as {@link DataflowResult}
+     * is not thread-safe.
+     */
+    private void doSolveInParallel() {
+        Map<Method, MethodTask> tasks = Maps.newConcurrentMap();
+        icfg.entryMethods().forEach(m -> tasks.put(m, new MethodTask(m)));
+        List<MethodTask> active = List.copyOf(tasks.values());
+        while (!active.isEmpty()) {
+            active.forEach(MethodTask::start);
+            active.parallelStream().forEach(task -> task.run(tasks));
+            active = tasks.values()
+                    .stream()
+                    .filter(MethodTask::hasWork)
+                    .toList();
+        }
+    }
+
+    /**
+     * Task of solving the nodes in a method for {@link #doSolveInParallel()}.
+     */
+    private class MethodTask {
+
+        private final Method method;
+
+        private final Queue<Node> workList = new SetQueue<>();
+
+        private final Queue<Message<Node, Fact>> mailbox =
+                new ConcurrentLinkedQueue<>();
+
+        private boolean started = false;
+
+        /**
+         * Whether to send the facts of the processed nodes to other methods
+         * even if the facts do not change, which is true for the first run
+         * of the task, as the facts of the targets are computed from them.
+         */
+        private boolean sendAll = false;
+
+        private MethodTask(Method method) {
+            this.method = method;
+        }
+
+        private boolean hasWork() {
+            return !started || !workList.isEmpty() || !mailbox.isEmpty();
+        }
+
+        /**
+         * Discovers the method of this task if it has not been started.
+         */
+        private void start() {
+            if (!started) {
+                started = true;
+                sendAll = true;
+                workList.addAll(discover(method));
+            }
+        }
+
+        private void run(Map<Method, MethodTask> tasks) {
+            Message<Node, Fact> message;
+            while ((message = mailbox.poll()) != null) {
+                Node target = message.edge().getTarget();
+                analysis.meetInto(message.fact(), result.getInFact(target));
+                workList.add(target);
+            }
+            while (!workList.isEmpty()) {
+                Node node = workList.poll();
+                Fact in = result.getInFact(node);
+                for (ICFGEdge<Node> edge : icfg.getInEdgesOf(node)) {
+                    Node source = edge.getSource();
+                    if (icfg.getContainingMethodOf(source).equals(method)) {
+                        analysis.meetInto(analysis.transferEdge(
+                                edge, result.getOutFact(source)), in);
+                    }
+                }
+                Fact out = result.getOutFact(node);
+                if (analysis.transferNode(node, in, out) || sendAll) {
+                    for (ICFGEdge<Node> edge : icfg.getOutEdgesOf(node)) {
+                        Node target = edge.getTarget();
+                        Method container = icfg.getContainingMethodOf(target);
+                        if (container.equals(method)) {
+                            workList.add(target);
+                        } else if (!boundaries.contains(target)) {
+                            tasks.computeIfAbsent(container, MethodTask::new)
+                                    .mailbox.add(new Message<>(
+                                            edge, analysis.transferEdge(edge, out)));
+                        }
+                    }
+                }
+            }
+            sendAll = false;
+        }
+    }
+
+    /**
+     * Fact flowing along an edge across methods.
+     */
+    private record Message<Node, Fact>(ICFGEdge<Node> edge, Fact fact) {
+    }
+
+    /**
+     * Adds all nodes of given method to its local work-list,
+     * and adds the method to the method work-list.
+     */
+    private void enterMethod(Method method) {
+        getLocalWorkList(method).addAll(discover(method));
+        methods.add(method);
+    }
+
+    private Queue<Node> getLocalWorkList(Method method) {
+        return localWorkLists.computeIfAbsent(method, __ -> new SetQueue<>());
+    }
+
+    /**
+     * Meets the facts flowing along the in-edges of given node into its IN
+     * fact, and then applies the node transfer function. The edges from
+     * the nodes of undiscovered methods are skipped, as their facts are
+     * still the initial facts.
+     *
+     * @return true if the OUT fact of the node changed, otherwise false.
+     */
+    private boolean processNode(Node node) {
+        Fact in = result.getInFact(node);
+        for (ICFGEdge<Node> edge : icfg.getInEdgesOf(node)) {
+            Fact sourceOut = result.getOutFact(edge.getSource());
+            if (sourceOut != null) {
+                analysis.meetInto(analysis.transferEdge(edge, sourceOut), in);
+            }
+        }
+        return analysis.transferNode(node, in, result.getOutFact(node));
     }
 }
@@ -26,40 +26,289 @@ import pascal.taie.World;
 import pascal.taie.ir.proginfo.MethodRef;
 import pascal.taie.ir.stmt.Invoke;
 import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.HierarchyIndex;
 import pascal.taie.language.classes.JClass;
 import pascal.taie.language.classes.JMethod;
 import pascal.taie.language.classes.Subsignature;
 
+import pascal.taie.util.collection.Sets;
+
+import javax.annotation.Nullable;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Queue;
 import java.util.Set;
 
 /**
  * Implementation of the CHA algorithm.
+ * Virtual calls are dispatched via {@link DispatchTable}.
  */
 class CHABuilder implements CGBuilder<Invoke, JMethod> {
 
     private ClassHierarchy hierarchy;
 
+    private DispatchTable dispatchTable;
+
+    /**
+     * Whether to enumerate subtypes via {@link HierarchyIndex}.
+     */
+    private final boolean useHierarchyIndex;
+
+    private HierarchyIndex hierarchyIndex;
+
+    /**
+     * Whether to build the call graph in parallel.
+     */
+    private final boolean parallel;
+
+    /**
+     * Call graph of the previous version of the program, which is updated
+     * incrementally, or null if the call graph is built from scratch.
+     */
+    @Nullable
+    private final CallGraph<Invoke, JMethod> prior;
+
+    /**
+     * Classes that have been changed since {@link #prior} was built.
+     */
+    private final Set<JClass> changedClasses;
+
+    /**
+     * The changed classes and all their subtypes, i.e., the classes whose
+     * dispatch may be affected by {@link #changedClasses}.
+     */
+    private Set<JClass> affectedClasses;
+
+    CHABuilder(boolean useHierarchyIndex, boolean parallel) {
+        this(useHierarchyIndex, parallel, null, Set.of());
+    }
+
+    CHABuilder(boolean useHierarchyIndex, boolean parallel,
+               @Nullable CallGraph<Invoke, JMethod> prior,
+               Set<JClass> changedClasses) {
+        this.useHierarchyIndex = useHierarchyIndex;
+        this.parallel = parallel;
+        this.prior = prior;
+        this.changedClasses = changedClasses;
+    }
+
     @Override
     public CallGraph<Invoke, JMethod> build() {
         hierarchy = World.get().getClassHierarchy();
-        return buildCallGraph(World.get().getMainMethod());
+        dispatchTable = new DispatchTable();
+        if (useHierarchyIndex || prior != null) {
+            hierarchyIndex = HierarchyIndex.of(hierarchy);
+        }
+        JMethod entry = World.get().getMainMethod();
+        if (prior != null) {
+            return updateCallGraph(entry);
+        }
+        return parallel ? buildCallGraphInParallel(entry) : buildCallGraph(entry);
     }
 
     private CallGraph<Invoke, JMethod> buildCallGraph(JMethod entry) {
         DefaultCallGraph callGraph = new DefaultCallGraph();
         callGraph.addEntryMethod(entry);
-        // TODO - finish me
+        Queue<JMethod> workList = new ArrayDeque<>();
+        workList.add(entry);
+        while (!workList.isEmpty()) {
+            JMethod method = workList.poll();
+            if (callGraph.addReachableMethod(method)) {
+                callGraph.callSitesIn(method).forEach(callSite -> {
+                    CallKind kind = CallGraphs.getCallKind(callSite);
+                    for (JMethod callee : resolve(callSite)) {
+                        callGraph.addEdge(new Edge<>(kind, callSite, callee));
+                        workList.add(callee);
+                    }
+                });
+            }
+        }
+        return callGraph;
+    }
+
+    /**
+     * Builds call graph by reusing {@link #prior}. The edges of the call
+     * sites that are not affected by {@link #changedClasses} are copied from
+     * the prior call graph, and only the affected call sites, and the call
+     * sites in changed or newly reachable methods, are resolved again.
+     * The methods that are no longer reachable are dropped, as the call
+     * graph is still traversed from the entry method.
+     */
+    private CallGraph<Invoke, JMethod> updateCallGraph(JMethod entry) {
+        affectedClasses = Sets.newSet();
+        changedClasses.forEach(c ->
+                affectedClasses.addAll(hierarchyIndex.getSubtypesOf(c)));
+        DefaultCallGraph callGraph = new DefaultCallGraph();
+        callGraph.addEntryMethod(entry);
+        Queue<JMethod> workList = new ArrayDeque<>();
+        workList.add(entry);
+        while (!workList.isEmpty()) {
+            JMethod method = workList.poll();
+            if (callGraph.addReachableMethod(method)) {
+                boolean reusable = prior.contains(method) &&
+                        !changedClasses.contains(method.getDeclaringClass());
+                callGraph.callSitesIn(method).forEach(callSite -> {
+                    if (reusable && !isAffected(callSite)) {
+                        prior.edgesOutOf(callSite).forEach(edge -> {
+                            callGraph.addEdge(edge);
+                            workList.add(edge.getCallee());
+                        });
+                    } else {
+                        CallKind kind = CallGraphs.getCallKind(callSite);
+                        for (JMethod callee : resolve(callSite)) {
+                            callGraph.addEdge(new Edge<>(kind, callSite, callee));
+                            workList.add(callee);
+                        }
+                    }
+                });
+            }
+        }
         return callGraph;
     }
 
+    /**
+     * @return true if the callees of given call site may differ from
+     * those in {@link #prior} due to {@link #changedClasses}.
+     */
+    private boolean isAffected(Invoke callSite) {
+        return switch (CallGraphs.getCallKind(callSite)) {
+            // non-virtual calls are cheap to resolve, thus always resolve them
+            case STATIC, SPECIAL -> true;
+            case VIRTUAL, INTERFACE -> {
+                // the call site may be dispatched on a subtype of a changed
+                // class, where the method lookup may go up to the changed
+                // class (which may declare or remove the target method),
+                // or its previous callees include the methods of changed
+                // classes (which may not be its subtypes any more).
+                // Note that the receiver class needs not to be related to
+                // the changed class, e.g., for interface I, S extends C
+                // implements I, changing C affects the dispatch of I on S.
+                JClass jclass = callSite.getMethodRef().getDeclaringClass();
+                Set<JClass> subtypes = hierarchyIndex.getSubtypesOf(jclass);
+                boolean dispatchAffected = subtypes.size() <= affectedClasses.size()
+                        ? subtypes.stream().anyMatch(affectedClasses::contains)
+                        : affectedClasses.stream().anyMatch(subtypes::contains);
+                yield dispatchAffected ||
+                        prior.getCalleesOf(callSite)
+                                .stream()
+                                .anyMatch(callee -> changedClasses.contains(
+                                        callee.getDeclaringClass()));
+            }
+            default -> false;
+        };
+    }
+
+    /**
+     * Builds call graph level by level: the methods in each frontier (i.e.,
+     * the methods that are newly discovered in the previous level) are
+     * processed in parallel, which builds their IR and resolves their call
+     * sites, and then the resulting edges are added to the call graph
+     * sequentially. As the resolution is independent of the call graph
+     * under construction, the result is the same as {@link #buildCallGraph}.
+     */
+    private CallGraph<Invoke, JMethod> buildCallGraphInParallel(JMethod entry) {
+        DefaultCallGraph callGraph = new DefaultCallGraph();
+        callGraph.addEntryMethod(entry);
+        List<JMethod> frontier = List.of(entry);
+        while (!frontier.isEmpty()) {
+            List<List<Edge<Invoke, JMethod>>> edges = frontier.parallelStream()
+                    .map(this::resolveEdgesOf)
+                    .toList();
+            frontier.forEach(callGraph::addReachableMethod);
+            Set<JMethod> next = Sets.newHybridOrderedSet();
+            edges.forEach(es -> es.forEach(edge -> {
+                callGraph.addEdge(edge);
+                if (!callGraph.contains(edge.getCallee())) {
+                    next.add(edge.getCallee());
+                }
+            }));
+            frontier = List.copyOf(next);
+        }
+        return callGraph;
+    }
+
+    /**
+     * @return the call edges of all call sites in given method.
+     */
+    private List<Edge<Invoke, JMethod>> resolveEdgesOf(JMethod method) {
+        if (method.isAbstract()) {
+            return List.of();
+        }
+        List<Edge<Invoke, JMethod>> edges = new ArrayList<>();
+        method.getIR().forEach(stmt -> {
+            if (stmt instanceof Invoke callSite) {
+                CallKind kind = CallGraphs.getCallKind(callSite);
+                for (JMethod callee : resolve(callSite)) {
+                    edges.add(new Edge<>(kind, callSite, callee));
+                }
+            }
+        });
+        return edges;
+    }
+
     /**
      * Resolves call targets (callees) of a call site via CHA.
      */
     private Set<JMethod> resolve(Invoke callSite) {
-        // TODO - finish me
-        return null;
+        MethodRef methodRef = callSite.getMethodRef();
+        JClass jclass = methodRef.getDeclaringClass();
+        Subsignature subsignature = methodRef.getSubsignature();
+        Set<JMethod> callees = Sets.newHybridSet();
+        switch (CallGraphs.getCallKind(callSite)) {
+            case STATIC, SPECIAL -> {
+                JMethod callee = dispatchTable.resolveNonVirtual(callSite);
+                if (callee != null) {
+                    callees.add(callee);
+                }
+            }
+            case VIRTUAL, INTERFACE -> {
+                for (JClass c : getSubtypesOf(jclass)) {
+                    JMethod callee = dispatch(c, subsignature);
+                    if (callee != null) {
+                        callees.add(callee);
+                    }
+                }
+            }
+            default -> {
+                // invokedynamic is not handled by CHA
+            }
+        }
+        return callees;
+    }
+
+    /**
+     * @return given class and all its subtypes.
+     */
+    private Collection<JClass> getSubtypesOf(JClass jclass) {
+        if (hierarchyIndex != null) {
+            return hierarchyIndex.getSubtypesOf(jclass);
+        }
+        Queue<JClass> queue = new ArrayDeque<>();
+        Set<JClass> subtypes = Sets.newSet();
+        queue.add(jclass);
+        subtypes.add(jclass);
+        while (!queue.isEmpty()) {
+            JClass c = queue.poll();
+            for (JClass sub : getDirectSubtypesOf(c)) {
+                if (subtypes.add(sub)) {
+                    queue.add(sub);
+                }
+            }
+        }
+        return subtypes;
+    }
+
+    private Collection<JClass> getDirectSubtypesOf(JClass jclass) {
+        if (jclass.isInterface()) {
+            List<JClass> subtypes = new ArrayList<>(
+                    hierarchy.getDirectSubinterfacesOf(jclass));
+            subtypes.addAll(hierarchy.getDirectImplementorsOf(jclass));
+            return subtypes;
+        } else {
+            return hierarchy.getDirectSubclassesOf(jclass);
+        }
     }
 
     /**
@@ -69,7 +318,6 @@ class CHABuilder implements CGBuilder<Invoke, JMethod> {
      * can be found.
      */
     private JMethod dispatch(JClass jclass, Subsignature subsignature) {
-        // TODO - finish me
-        return null;
+        return dispatchTable.dispatch(jclass, subsignature);
     }
 }
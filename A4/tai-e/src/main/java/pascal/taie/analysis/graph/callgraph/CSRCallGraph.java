@@ -0,0 +1,446 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.IntFunction;
+import java.util.function.IntUnaryOperator;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Immutable call graph stored in compressed sparse row (CSR) format.
+ * <p>
+ * The methods and call sites are numbered, and the call sites of each
+ * method are numbered consecutively. The call edges are stored in arrays
+ * sorted by call sites, and the edges of each call site occupy a range of
+ * the arrays given by {@link #edgeOffsets}; the edges into each method are
+ * indexed likewise by {@link #inEdges} and {@link #inOffsets}. Within each
+ * range, the edges are sorted by the ids of the callees (resp. call sites),
+ * so that membership tests of the returned sets are binary searches. Compared to
+ * {@link DefaultCallGraph}, this representation does not hold any objects
+ * per edge, thus it takes much less memory for large call graphs.
+ * The {@link Edge} objects are created on demand.
+ * <p>
+ * A finished call graph can be converted to this format by {@link #freeze}.
+ */
+public final class CSRCallGraph implements CallGraph<Invoke, JMethod> {
+
+    private static final CallKind[] KINDS = CallKind.values();
+
+    private final JMethod[] methods;
+
+    private final Map<JMethod, Integer> methodIds;
+
+    private final int[] entryMethods;
+
+    private final Invoke[] callSites;
+
+    private final Map<Invoke, Integer> callSiteIds;
+
+    /**
+     * Container method of each call site.
+     */
+    private final int[] callSiteContainers;
+
+    /**
+     * Call sites of method m are numbered in range
+     * [callSiteOffsets[m], callSiteOffsets[m + 1]).
+     */
+    private final int[] callSiteOffsets;
+
+    /**
+     * Edges of call site c are numbered in range
+     * [edgeOffsets[c], edgeOffsets[c + 1]), sorted by callees.
+     */
+    private final int[] edgeOffsets;
+
+    private final int[] edgeCallees;
+
+    private final byte[] edgeKinds;
+
+    /**
+     * Edges into method m are inEdges[inOffsets[m] .. inOffsets[m + 1]),
+     * sorted by call sites.
+     */
+    private final int[] inOffsets;
+
+    private final int[] inEdges;
+
+    /**
+     * Call site of each edge, which is used to find the call sites
+     * of the edges into a method.
+     */
+    private final int[] edgeCallSites;
+
+    private CSRCallGraph(CallGraph<Invoke, JMethod> callGraph) {
+        methods = callGraph.reachableMethods().toArray(JMethod[]::new);
+        methodIds = Maps.newMap(methods.length);
+        for (int i = 0; i < methods.length; ++i) {
+            methodIds.put(methods[i], i);
+        }
+        entryMethods = callGraph.entryMethods()
+                .mapToInt(this::getId)
+                .toArray();
+        // number call sites consecutively for each method
+        callSiteOffsets = new int[methods.length + 1];
+        for (int m = 0; m < methods.length; ++m) {
+            callSiteOffsets[m + 1] = callSiteOffsets[m]
+                    + callGraph.getCallSitesIn(methods[m]).size();
+        }
+        int nCallSites = callSiteOffsets[methods.length];
+        callSites = new Invoke[nCallSites];
+        callSiteIds = Maps.newMap(nCallSites);
+        callSiteContainers = new int[nCallSites];
+        for (int m = 0; m < methods.length; ++m) {
+            int c = callSiteOffsets[m];
+            for (Invoke callSite : callGraph.getCallSitesIn(methods[m])) {
+                callSites[c] = callSite;
+                callSiteIds.put(callSite, c);
+                callSiteContainers[c] = m;
+                ++c;
+            }
+        }
+        // out edges, sorted by call sites, and then by callees
+        int nEdges = callGraph.getNumberOfEdges();
+        edgeOffsets = new int[nCallSites + 1];
+        edgeCallees = new int[nEdges];
+        edgeKinds = new byte[nEdges];
+        edgeCallSites = new int[nEdges];
+        int e = 0;
+        int[] inDegrees = new int[methods.length];
+        for (int c = 0; c < nCallSites; ++c) {
+            edgeOffsets[c] = e;
+            List<Edge<Invoke, JMethod>> edges = callGraph.edgesOutOf(callSites[c])
+                    .sorted(Comparator.comparingInt(edge -> getId(edge.getCallee())))
+                    .toList();
+            for (Edge<Invoke, JMethod> edge : edges) {
+                int callee = getId(edge.getCallee());
+                edgeCallees[e] = callee;
+                edgeKinds[e] = (byte) edge.getKind().ordinal();
+                edgeCallSites[e] = c;
+                ++inDegrees[callee];
+                ++e;
+            }
+        }
+        edgeOffsets[nCallSites] = e;
+        // in edges, bucketed by callees; as edges are visited in the
+        // order of call sites, each bucket is sorted by call sites
+        inOffsets = new int[methods.length + 1];
+        for (int m = 0; m < methods.length; ++m) {
+            inOffsets[m + 1] = inOffsets[m] + inDegrees[m];
+        }
+        inEdges = new int[e];
+        int[] next = Arrays.copyOf(inOffsets, methods.length);
+        for (int i = 0; i < e; ++i) {
+            inEdges[next[edgeCallees[i]]++] = i;
+        }
+    }
+
+    /**
+     * Converts given (finished) call graph to CSR format.
+     */
+    public static CSRCallGraph freeze(CallGraph<Invoke, JMethod> callGraph) {
+        return callGraph instanceof CSRCallGraph csr ? csr : new CSRCallGraph(callGraph);
+    }
+
+    private int getId(JMethod method) {
+        Integer id = methodIds.get(method);
+        return id != null ? id : -1;
+    }
+
+    private int getId(Invoke callSite) {
+        Integer id = callSiteIds.get(callSite);
+        return id != null ? id : -1;
+    }
+
+    private int getMethodId(Object o) {
+        return o instanceof JMethod method ? getId(method) : -1;
+    }
+
+    private int getCallSiteId(Object o) {
+        return o instanceof Invoke callSite ? getId(callSite) : -1;
+    }
+
+    private Edge<Invoke, JMethod> getEdge(int e) {
+        return new Edge<>(KINDS[edgeKinds[e]],
+                callSites[edgeCallSites[e]], methods[edgeCallees[e]]);
+    }
+
+    @Override
+    public Set<Invoke> getCallersOf(JMethod callee) {
+        int m = getId(callee);
+        if (m < 0) {
+            return Set.of();
+        }
+        return new RangeSet<>(inOffsets[m], inOffsets[m + 1],
+                i -> edgeCallSites[inEdges[i]], i -> callSites[i], this::getCallSiteId);
+    }
+
+    @Override
+    public Set<JMethod> getCalleesOf(Invoke callSite) {
+        int c = getId(callSite);
+        if (c < 0) {
+            return Set.of();
+        }
+        return new RangeSet<>(edgeOffsets[c], edgeOffsets[c + 1],
+                i -> edgeCallees[i], i -> methods[i], this::getMethodId);
+    }
+
+    @Override
+    public Set<JMethod> getCalleesOfM(JMethod caller) {
+        return callSitesIn(caller)
+                .flatMap(cs -> getCalleesOf(cs).stream())
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    @Override
+    public JMethod getContainerOf(Invoke callSite) {
+        int c = getId(callSite);
+        return c >= 0 ? methods[callSiteContainers[c]] : null;
+    }
+
+    @Override
+    public Set<Invoke> getCallSitesIn(JMethod method) {
+        int m = getId(method);
+        if (m < 0) {
+            return Set.of();
+        }
+        return new RangeSet<>(callSiteOffsets[m], callSiteOffsets[m + 1],
+                i -> i, i -> callSites[i], this::getCallSiteId);
+    }
+
+    @Override
+    public Stream<Edge<Invoke, JMethod>> edgesOutOf(Invoke callSite) {
+        int c = getId(callSite);
+        if (c < 0) {
+            return Stream.of();
+        }
+        return IntStream.range(edgeOffsets[c], edgeOffsets[c + 1])
+                .mapToObj(this::getEdge);
+    }
+
+    @Override
+    public Stream<Edge<Invoke, JMethod>> edgesInTo(JMethod method) {
+        int m = getId(method);
+        if (m < 0) {
+            return Stream.of();
+        }
+        return IntStream.range(inOffsets[m], inOffsets[m + 1])
+                .mapToObj(i -> getEdge(inEdges[i]));
+    }
+
+    @Override
+    public Stream<Edge<Invoke, JMethod>> edges() {
+        return IntStream.range(0, edgeCallees.length)
+                .mapToObj(this::getEdge);
+    }
+
+    @Override
+    public int getNumberOfEdges() {
+        return edgeCallees.length;
+    }
+
+    @Override
+    public Stream<JMethod> entryMethods() {
+        return Arrays.stream(entryMethods).mapToObj(m -> methods[m]);
+    }
+
+    @Override
+    public Stream<JMethod> reachableMethods() {
+        return Arrays.stream(methods);
+    }
+
+    @Override
+    public int getNumberOfMethods() {
+        return methods.length;
+    }
+
+    @Override
+    public boolean contains(JMethod method) {
+        return methodIds.containsKey(method);
+    }
+
+    // Implementation for Graph interface.
+
+    @Override
+    public boolean hasNode(JMethod node) {
+        return contains(node);
+    }
+
+    @Override
+    public boolean hasEdge(JMethod source, JMethod target) {
+        int t = getId(target);
+        if (t < 0) {
+            return false;
+        }
+        for (int i = inOffsets[t]; i < inOffsets[t + 1]; ++i) {
+            if (methods[callSiteContainers[edgeCallSites[inEdges[i]]]] == source) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Set<MethodEdge<Invoke, JMethod>> getInEdgesOf(JMethod method) {
+        return edgesInTo(method)
+                .map(e -> new MethodEdge<>(getContainerOf(e.getCallSite()),
+                        method, e.getCallSite()))
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    @Override
+    public Set<MethodEdge<Invoke, JMethod>> getOutEdgesOf(JMethod method) {
+        return callSitesIn(method)
+                .flatMap(this::edgesOutOf)
+                .map(e -> new MethodEdge<>(method, e.getCallee(), e.getCallSite()))
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    @Override
+    public Set<JMethod> getPredsOf(JMethod node) {
+        return getCallersOf(node)
+                .stream()
+                .map(this::getContainerOf)
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    @Override
+    public Set<JMethod> getSuccsOf(JMethod node) {
+        return getCalleesOfM(node);
+    }
+
+    @Override
+    public Set<JMethod> getNodes() {
+        return new RangeSet<>(0, methods.length,
+                i -> i, i -> methods[i], this::getMethodId);
+    }
+
+    // Implementation for StmtResult interface.
+
+    @Override
+    public boolean isRelevant(Stmt stmt) {
+        return stmt instanceof Invoke;
+    }
+
+    @Override
+    public Set<JMethod> getResult(Stmt stmt) {
+        return getCalleesOf((Invoke) stmt);
+    }
+
+    /**
+     * Unmodifiable view of the elements at a range of indexes.
+     * The element at index i is given by its id, i.e., ids[i], which
+     * must be strictly increasing in the range.
+     */
+    private static class RangeSet<E> extends AbstractSet<E> {
+
+        private final int from;
+
+        private final int to;
+
+        private final IntUnaryOperator ids;
+
+        private final IntFunction<E> elements;
+
+        private final ToIntFunction<Object> idOf;
+
+        /**
+         * @param ids      maps indexes to the ids of the elements
+         * @param elements maps ids to the elements
+         * @param idOf     maps objects to their ids, or -1 if they are
+         *                 not elements of this kind
+         */
+        private RangeSet(int from, int to, IntUnaryOperator ids,
+                         IntFunction<E> elements, ToIntFunction<Object> idOf) {
+            this.from = from;
+            this.to = to;
+            this.ids = ids;
+            this.elements = elements;
+            this.idOf = idOf;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            int id = idOf.applyAsInt(o);
+            if (id < 0) {
+                return false;
+            }
+            // binary search for id in the range
+            int low = from, high = to - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int midId = ids.applyAsInt(mid);
+                if (midId < id) {
+                    low = mid + 1;
+                } else if (midId > id) {
+                    high = mid - 1;
+                } else {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            return new Iterator<>() {
+
+                private int next = from;
+
+                @Override
+                public boolean hasNext() {
+                    return next < to;
+                }
+
+                @Override
+                public E next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return elements.apply(ids.applyAsInt(next++));
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+    }
+}
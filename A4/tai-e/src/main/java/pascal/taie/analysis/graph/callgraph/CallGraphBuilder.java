@@ -24,16 +24,22 @@ package pascal.taie.analysis.graph.callgraph;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import pascal.taie.World;
 import pascal.taie.analysis.ProgramAnalysis;
 import pascal.taie.config.AnalysisConfig;
 import pascal.taie.config.ConfigException;
-import pascal.taie.ir.IRPrinter;
 import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.ClassHierarchy;
 import pascal.taie.language.classes.ClassHierarchyImpl;
+import pascal.taie.language.classes.JClass;
 import pascal.taie.language.classes.JMethod;
 
-import java.util.Collection;
-import java.util.Comparator;
+import javax.annotation.Nullable;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 public class CallGraphBuilder extends ProgramAnalysis {
 
@@ -41,11 +47,6 @@ public class CallGraphBuilder extends ProgramAnalysis {
 
     private static final Logger logger = LogManager.getLogger(CallGraphBuilder.class);
 
-    /**
-     * Separator between call site and its callees.
-     */
-    private static final String SEP = " -> ";
-
     private final String algorithm;
 
     public CallGraphBuilder(AnalysisConfig config) {
@@ -55,16 +56,82 @@ public class CallGraphBuilder extends ProgramAnalysis {
 
     @Override
     public CallGraph<Invoke, JMethod> analyze() {
-        CGBuilder<Invoke, JMethod> builder;
-        if (algorithm.equals("cha")) {
-            builder = new CHABuilder();
+        CallGraph<Invoke, JMethod> callGraph;
+        String load = getOptions().getString("load");
+        List<String> changed = getChangedClasses();
+        if (load != null && changed != null) {
+            callGraph = buildIncrementally(Path.of(load), changed);
+        } else if (load != null) {
+            callGraph = CallGraphSerializer.read(
+                    Path.of(load), World.get().getClassHierarchy());
         } else {
-            throw new ConfigException("Unknown call graph building algorithm: " + algorithm);
+            callGraph = build();
+        }
+        String save = getOptions().getString("save");
+        if (save != null) {
+            CallGraphSerializer.write(callGraph, Path.of(save));
         }
+        if (getOptions().getBooleanOrDefault("freeze", false)) {
+            callGraph = CSRCallGraph.freeze(callGraph);
+        }
+        takeAction(callGraph);
+        return callGraph;
+    }
+
+    private CallGraph<Invoke, JMethod> build() {
+        CGBuilder<Invoke, JMethod> builder = switch (algorithm) {
+            case "cha" -> new CHABuilder(
+                    getOptions().getBooleanOrDefault("hierarchy-index", false),
+                    getOptions().getBooleanOrDefault("parallel", false));
+            case "rta" -> new RTABuilder();
+            case "xta" -> new XTABuilder();
+            default -> throw new ConfigException(
+                    "Unknown call graph building algorithm: " + algorithm);
+        };
+        ClassHierarchyImpl.setCheckCHA(true);
+        CallGraph<Invoke, JMethod> callGraph = builder.build();
+        ClassHierarchyImpl.setCheckCHA(false);
+        return callGraph;
+    }
+
+    /**
+     * @return names of the classes given by option "changed-classes",
+     * or null if the option is absent.
+     */
+    @SuppressWarnings("unchecked")
+    @Nullable
+    private List<String> getChangedClasses() {
+        Object changed = getOptions().get("changed-classes");
+        if (changed == null) {
+            return null;
+        }
+        return changed instanceof List<?> list ?
+                (List<String>) list : List.of(changed.toString());
+    }
+
+    /**
+     * Updates the call graph loaded from given file, which is built for
+     * a previous version of the program where given classes have changed.
+     */
+    private CallGraph<Invoke, JMethod> buildIncrementally(
+            Path file, List<String> changed) {
+        if (!algorithm.equals("cha")) {
+            throw new ConfigException("Incremental call graph building" +
+                    " is only supported by CHA, but got " + algorithm);
+        }
+        ClassHierarchy hierarchy = World.get().getClassHierarchy();
+        CallGraph<Invoke, JMethod> prior = CallGraphSerializer.read(
+                file, hierarchy, Set.copyOf(changed));
+        Set<JClass> changedClasses = changed.stream()
+                .map(hierarchy::getClass)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toUnmodifiableSet());
+        CHABuilder builder = new CHABuilder(
+                getOptions().getBooleanOrDefault("hierarchy-index", false),
+                false, prior, changedClasses);
         ClassHierarchyImpl.setCheckCHA(true);
         CallGraph<Invoke, JMethod> callGraph = builder.build();
         ClassHierarchyImpl.setCheckCHA(false);
-        takeAction(callGraph);
         return callGraph;
     }
 
@@ -75,40 +142,15 @@ public class CallGraphBuilder extends ProgramAnalysis {
         }
         if (action.equals("dump")) {
             logCallGraph(callGraph);
+            CallGraphs.dumpCallGraphText(callGraph,
+                    getOptions().getString("text-file"));
             String file = getOptions().getString("file");
             CallGraphs.dumpCallGraph(callGraph, file);
         }
     }
 
-    static void logCallGraph(CallGraph<Invoke, JMethod> callGraph) {
-        Comparator<JMethod> cmp = Comparator.comparing(JMethod::toString);
+    private static void logCallGraph(CallGraph<Invoke, JMethod> callGraph) {
         logger.info("#reachable methods: {}", callGraph.getNumberOfMethods());
-        logger.info("---------- Reachable methods: ----------");
-        callGraph.reachableMethods()
-                .sorted(cmp)
-                .forEach(logger::info);
-        logger.info("\n#call graph edges: {}", callGraph.getNumberOfEdges());
-        logger.info("---------- Call graph edges: ----------");
-        callGraph.reachableMethods()
-                .sorted(cmp) // sort reachable methods
-                .forEach(caller ->
-                        callGraph.callSitesIn(caller)
-                                .sorted(Comparator.comparing(Invoke::getIndex))
-                                .filter(callSite -> !callGraph.getCalleesOf(callSite).isEmpty())
-                                .forEach(callSite ->
-                                        logger.info(toString(callSite) + SEP +
-                                                toString(callGraph.getCalleesOf(callSite)))));
-        logger.info("----------------------------------------");
-    }
-
-    private static String toString(Invoke invoke) {
-        return invoke.getContainer() + IRPrinter.toString(invoke);
-    }
-
-    private static String toString(Collection<JMethod> methods) {
-        return methods.stream()
-                .sorted(Comparator.comparing(JMethod::toString))
-                .toList()
-                .toString();
+        logger.info("#call graph edges: {}", callGraph.getNumberOfEdges());
     }
 }
@@ -0,0 +1,228 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.classes.Subsignature;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.collection.Maps;
+
+import javax.annotation.Nullable;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Writes call graphs in a compact binary format, and loads them back,
+ * so that a call graph built once can be reused by later runs.
+ * <p>
+ * The format consists of (all integers are big-endian ints):
+ * <ul>
+ *     <li>the magic number and the format version;</li>
+ *     <li>the number of reachable methods, followed by the declaring
+ *     class name and subsignature of each method, which are written
+ *     as length-prefixed UTF-8 strings; the methods are referred
+ *     by their positions in this table in the rest of the file;</li>
+ *     <li>the number of entry methods, followed by their ids;</li>
+ *     <li>the number of call edges, followed by (caller id,
+ *     index of call site in caller, call kind, callee id) of each edge,
+ *     where the call kind is written as a byte.</li>
+ * </ul>
+ * The file is memory-mapped when it is loaded.
+ */
+public final class CallGraphSerializer {
+
+    private static final Logger logger = LogManager.getLogger(CallGraphSerializer.class);
+
+    private static final int MAGIC = 0x54434731; // "TCG1"
+
+    private static final int VERSION = 1;
+
+    private static final CallKind[] KINDS = CallKind.values();
+
+    private CallGraphSerializer() {
+    }
+
+    /**
+     * Writes given call graph to given file.
+     */
+    public static void write(CallGraph<Invoke, JMethod> callGraph, Path file) {
+        logger.info("Writing call graph to {} ...", file);
+        Map<JMethod, Integer> ids = Maps.newMap(callGraph.getNumberOfMethods());
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(file), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(callGraph.getNumberOfMethods());
+            for (JMethod method : (Iterable<JMethod>)
+                    callGraph.reachableMethods()::iterator) {
+                ids.put(method, ids.size());
+                writeString(out, method.getDeclaringClass().getName());
+                writeString(out, method.getSubsignature().toString());
+            }
+            out.writeInt((int) callGraph.entryMethods().count());
+            for (JMethod entry : (Iterable<JMethod>)
+                    callGraph.entryMethods()::iterator) {
+                out.writeInt(ids.get(entry));
+            }
+            out.writeInt(callGraph.getNumberOfEdges());
+            for (Edge<Invoke, JMethod> edge : (Iterable<Edge<Invoke, JMethod>>)
+                    callGraph.edges()::iterator) {
+                Invoke callSite = edge.getCallSite();
+                out.writeInt(ids.get(callGraph.getContainerOf(callSite)));
+                out.writeInt(callSite.getIndex());
+                out.writeByte(edge.getKind().ordinal());
+                out.writeInt(ids.get(edge.getCallee()));
+            }
+        } catch (IOException e) {
+            throw new AnalysisException("Failed to write call graph to " + file, e);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String s)
+            throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Loads call graph from given file, and resolves its methods
+     * and call sites in given class hierarchy.
+     *
+     * @throws AnalysisException if the file is malformed, or it does not
+     *                           match the program in the class hierarchy.
+     */
+    public static DefaultCallGraph read(Path file, ClassHierarchy hierarchy) {
+        return read(file, hierarchy, Set.of());
+    }
+
+    /**
+     * Loads call graph from given file, which may be written for
+     * a previous version of the program where the classes with given
+     * names have been changed (or removed). The methods of these classes
+     * that cannot be found in given class hierarchy, and the edges from
+     * and to them, are dropped. The edges from the call sites in changed
+     * classes are dropped too, as their indexes may be stale; in such
+     * case, the call sites must be resolved again by the caller of this
+     * method.
+     *
+     * @throws AnalysisException if the file is malformed, or it does not
+     *                           match the unchanged classes in the hierarchy.
+     */
+    public static DefaultCallGraph read(Path file, ClassHierarchy hierarchy,
+                                        Set<String> changedClasses) {
+        logger.info("Loading call graph from {} ...", file);
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            throw new AnalysisException("Failed to load call graph from " + file, e);
+        }
+        try {
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new AnalysisException(file + " is not a call graph file" +
+                        " of version " + VERSION);
+            }
+            DefaultCallGraph callGraph = new DefaultCallGraph();
+            JMethod[] methods = new JMethod[buffer.getInt()];
+            for (int i = 0; i < methods.length; ++i) {
+                String className = readString(buffer);
+                String subsig = readString(buffer);
+                methods[i] = resolveMethod(hierarchy, className, subsig,
+                        changedClasses.contains(className));
+            }
+            int nEntries = buffer.getInt();
+            for (int i = 0; i < nEntries; ++i) {
+                JMethod entry = methods[buffer.getInt()];
+                if (entry != null) {
+                    callGraph.addEntryMethod(entry);
+                }
+            }
+            for (JMethod method : methods) {
+                if (method != null) {
+                    callGraph.addReachableMethod(method);
+                }
+            }
+            int nEdges = buffer.getInt();
+            for (int i = 0; i < nEdges; ++i) {
+                JMethod caller = methods[buffer.getInt()];
+                int index = buffer.getInt();
+                CallKind kind = KINDS[buffer.get()];
+                JMethod callee = methods[buffer.getInt()];
+                if (caller == null || callee == null || changedClasses.contains(
+                        caller.getDeclaringClass().getName())) {
+                    continue;
+                }
+                Stmt stmt = caller.getIR().getStmt(index);
+                if (!(stmt instanceof Invoke callSite)) {
+                    throw new AnalysisException("Stale call graph: statement "
+                            + index + " of " + caller + " is not a call site");
+                }
+                callGraph.addEdge(new Edge<>(kind, callSite, callee));
+            }
+            return callGraph;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new AnalysisException("Malformed call graph file: " + file, e);
+        }
+    }
+
+    private static String readString(MappedByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @param lenient whether to return null (instead of throwing exception)
+     *                if the method cannot be found.
+     */
+    @Nullable
+    private static JMethod resolveMethod(ClassHierarchy hierarchy,
+                                         String className, String subsig,
+                                         boolean lenient) {
+        JClass jclass = hierarchy.getClass(className);
+        JMethod method = jclass == null ? null :
+                jclass.getDeclaredMethod(Subsignature.get(subsig));
+        if (method == null && !lenient) {
+            throw new AnalysisException("Stale call graph: cannot find method <"
+                    + className + ": " + subsig + ">");
+        }
+        return method;
+    }
+}
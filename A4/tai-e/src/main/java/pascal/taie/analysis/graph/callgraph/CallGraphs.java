@@ -37,10 +37,23 @@ import pascal.taie.language.classes.JMethod;
 import pascal.taie.util.AnalysisException;
 import pascal.taie.util.IDProvider;
 import pascal.taie.util.MapIDProvider;
+import pascal.taie.util.collection.Sets;
 import pascal.taie.util.graph.DotDumper;
 
+import java.io.BufferedWriter;
 import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -78,11 +91,7 @@ public final class CallGraphs {
      */
     static void dumpCallGraph(CallGraph<Invoke, JMethod> callGraph, String output) {
         if (output == null) {
-            output = new File(Configs.getOutputDir(),
-                    callGraph.entryMethods()
-                            .map(m -> m.getDeclaringClass() + "." + m.getName())
-                            .collect(Collectors.joining("-")) + "-cg.dot")
-                    .toString();
+            output = getDefaultOutput(callGraph, "-cg.dot");
         }
         logger.info("Dumping call graph to {} ...", output);
         IDProvider<JMethod> provider = new MapIDProvider<>();
@@ -96,6 +105,108 @@ public final class CallGraphs {
                 .dump(callGraph, output);
     }
 
+    /**
+     * Dumps reachable methods and call edges of call graph to text file.
+     * <p>
+     * To avoid sorting the whole call graph, the methods are numbered
+     * in the order of their discovery from the entry methods, i.e.,
+     * by traversing the call sites of each method in the order of their
+     * indexes, and only the callees of each call site are sorted.
+     * Hence, the output is deterministic, and its lines are written to
+     * the file as they are produced.
+     */
+    static void dumpCallGraphText(CallGraph<Invoke, JMethod> callGraph, String output) {
+        if (output == null) {
+            output = getDefaultOutput(callGraph, "-cg.txt");
+        }
+        logger.info("Dumping call graph to {} ...", output);
+        List<JMethod> methods = numberMethods(callGraph);
+        try (FileChannel channel = FileChannel.open(Path.of(output),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+             Writer out = new BufferedWriter(Channels.newWriter(
+                     channel, StandardCharsets.UTF_8), 1 << 16)) {
+            out.write("#reachable methods: " + methods.size() + "\n");
+            for (JMethod method : methods) {
+                out.write(method.toString());
+                out.write('\n');
+            }
+            out.write("\n#call graph edges: " + callGraph.getNumberOfEdges() + "\n");
+            for (JMethod method : methods) {
+                for (Invoke callSite : getSortedCallSitesIn(callGraph, method)) {
+                    Set<JMethod> callees = callGraph.getCalleesOf(callSite);
+                    if (!callees.isEmpty()) {
+                        out.write(toString(callSite));
+                        out.write(" -> ");
+                        out.write(getSortedCallees(callees).toString());
+                        out.write('\n');
+                    }
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to dump call graph to {}", output, e);
+        }
+    }
+
+    /**
+     * @return reachable methods of call graph in the order of their
+     * discovery from the entry methods.
+     */
+    private static List<JMethod> numberMethods(CallGraph<Invoke, JMethod> callGraph) {
+        List<JMethod> methods = new ArrayList<>(callGraph.getNumberOfMethods());
+        Set<JMethod> visited = Sets.newSet(callGraph.getNumberOfMethods());
+        callGraph.entryMethods()
+                .sorted(Comparator.comparing(JMethod::toString))
+                .forEach(entry -> {
+                    if (visited.add(entry)) {
+                        methods.add(entry);
+                    }
+                });
+        // methods works as the BFS queue
+        for (int i = 0; i < methods.size(); ++i) {
+            for (Invoke callSite : getSortedCallSitesIn(callGraph, methods.get(i))) {
+                for (JMethod callee : getSortedCallees(
+                        callGraph.getCalleesOf(callSite))) {
+                    if (visited.add(callee)) {
+                        methods.add(callee);
+                    }
+                }
+            }
+        }
+        if (methods.size() < callGraph.getNumberOfMethods()) {
+            // should not happen for call graphs built from the entry methods
+            callGraph.reachableMethods()
+                    .filter(m -> !visited.contains(m))
+                    .sorted(Comparator.comparing(JMethod::toString))
+                    .forEach(methods::add);
+        }
+        return methods;
+    }
+
+    private static List<Invoke> getSortedCallSitesIn(
+            CallGraph<Invoke, JMethod> callGraph, JMethod method) {
+        List<Invoke> callSites = new ArrayList<>(callGraph.getCallSitesIn(method));
+        callSites.sort(Comparator.comparingInt(Invoke::getIndex));
+        return callSites;
+    }
+
+    private static List<JMethod> getSortedCallees(Set<JMethod> callees) {
+        List<JMethod> result = new ArrayList<>(callees);
+        if (result.size() > 1) {
+            result.sort(Comparator.comparing(JMethod::toString));
+        }
+        return result;
+    }
+
+    private static String getDefaultOutput(
+            CallGraph<Invoke, JMethod> callGraph, String suffix) {
+        return new File(Configs.getOutputDir(),
+                callGraph.entryMethods()
+                        .map(m -> m.getDeclaringClass() + "." + m.getName())
+                        .collect(Collectors.joining("-")) + suffix)
+                .toString();
+    }
+
     public static String toString(Invoke invoke) {
         return invoke.getContainer() + IRPrinter.toString(invoke);
     }
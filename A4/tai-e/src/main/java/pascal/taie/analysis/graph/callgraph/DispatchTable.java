@@ -0,0 +1,131 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import pascal.taie.ir.proginfo.MethodRef;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.classes.Subsignature;
+import pascal.taie.util.collection.Maps;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Virtual dispatch tables (vtables) of classes.
+ * <p>
+ * Each {@link Subsignature} is interned to a small integer id, and the
+ * table of a class is an array indexed by the ids, which maps each
+ * subsignature to the non-abstract method that a virtual call on an
+ * instance of the class dispatches to. The table of a class is built
+ * from the table of its superclass on first use, so dispatch is a single
+ * array lookup instead of a walk along the superclass chain.
+ * <p>
+ * The ids are assigned when the tables are built, thus if the id of a
+ * subsignature exceeds the length of the table of a class, neither the
+ * class nor its superclasses declare the subsignature.
+ * <p>
+ * This class is thread-safe.
+ */
+class DispatchTable {
+
+    private static final JMethod[] EMPTY = new JMethod[0];
+
+    private final ConcurrentMap<Subsignature, Integer> ids = Maps.newConcurrentMap();
+
+    private final AtomicInteger counter = new AtomicInteger();
+
+    private final ConcurrentMap<JClass, JMethod[]> tables = Maps.newConcurrentMap();
+
+    /**
+     * Looks up the target method based on given class and method subsignature.
+     *
+     * @return the dispatched target method, or null if no satisfying method
+     * can be found.
+     */
+    @Nullable
+    JMethod dispatch(JClass jclass, Subsignature subsignature) {
+        JMethod[] table = getTable(jclass);
+        Integer id = ids.get(subsignature);
+        return id != null && id < table.length ? table[id] : null;
+    }
+
+    /**
+     * Resolves the callee of a static or special call site, which does not
+     * depend on the type of receiver object.
+     *
+     * @return the callee, or null if no satisfying method can be found.
+     */
+    @Nullable
+    JMethod resolveNonVirtual(Invoke callSite) {
+        MethodRef methodRef = callSite.getMethodRef();
+        JClass jclass = methodRef.getDeclaringClass();
+        Subsignature subsignature = methodRef.getSubsignature();
+        return callSite.isStatic()
+                ? jclass.getDeclaredMethod(subsignature)
+                : dispatch(jclass, subsignature);
+    }
+
+    private int getId(Subsignature subsignature) {
+        return ids.computeIfAbsent(subsignature, s -> counter.getAndIncrement());
+    }
+
+    private JMethod[] getTable(JClass jclass) {
+        JMethod[] table = tables.get(jclass);
+        if (table == null) {
+            // the table is not built inside computeIfAbsent(), as building
+            // it needs to (recursively) build the table of the superclass
+            table = buildTable(jclass);
+            JMethod[] prev = tables.putIfAbsent(jclass, table);
+            if (prev != null) {
+                table = prev;
+            }
+        }
+        return table;
+    }
+
+    private JMethod[] buildTable(JClass jclass) {
+        JClass superClass = jclass.getSuperClass();
+        JMethod[] table = superClass != null ? getTable(superClass) : EMPTY;
+        boolean copied = false;
+        for (JMethod method : jclass.getDeclaredMethods()) {
+            if (method.isAbstract() || method.isStatic()) {
+                // abstract methods are never dispatched to, and
+                // static methods do not override instance methods
+                continue;
+            }
+            int id = getId(method.getSubsignature());
+            if (!copied) {
+                table = Arrays.copyOf(table, Math.max(table.length, id + 1));
+                copied = true;
+            } else if (id >= table.length) {
+                table = Arrays.copyOf(table, id + 1);
+            }
+            table[id] = method;
+        }
+        return table;
+    }
+}
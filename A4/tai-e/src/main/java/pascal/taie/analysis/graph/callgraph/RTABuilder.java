@@ -0,0 +1,196 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import pascal.taie.World;
+import pascal.taie.ir.exp.ClassLiteral;
+import pascal.taie.ir.exp.Literal;
+import pascal.taie.ir.exp.StringLiteral;
+import pascal.taie.ir.proginfo.MethodRef;
+import pascal.taie.ir.stmt.AssignLiteral;
+import pascal.taie.ir.stmt.Catch;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.ClassNames;
+import pascal.taie.language.classes.HierarchyIndex;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.classes.Subsignature;
+import pascal.taie.language.type.ClassType;
+import pascal.taie.language.type.Type;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
+
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * Implementation of Rapid Type Analysis (RTA).
+ * <p>
+ * Different from CHA, RTA only dispatches virtual calls on the classes
+ * that are instantiated in reachable methods (see
+ * {@link #getInstantiatedType(Stmt)}). Whenever a new class is
+ * instantiated, the virtual call sites that have been discovered
+ * are dispatched on the class.
+ * <p>
+ * Note that other objects created implicitly, e.g., by native code
+ * or reflection, are not taken into account.
+ */
+class RTABuilder implements CGBuilder<Invoke, JMethod> {
+
+    private HierarchyIndex hierarchyIndex;
+
+    private DispatchTable dispatchTable;
+
+    private JClass objectClass;
+
+    private DefaultCallGraph callGraph;
+
+    private Queue<JMethod> workList;
+
+    private Set<JClass> instantiatedClasses;
+
+    /**
+     * Virtual call sites in reachable methods, grouped by subsignatures.
+     */
+    private MultiMap<Subsignature, Invoke> virtualCallSites;
+
+    @Override
+    public CallGraph<Invoke, JMethod> build() {
+        ClassHierarchy hierarchy = World.get().getClassHierarchy();
+        hierarchyIndex = HierarchyIndex.of(hierarchy);
+        dispatchTable = new DispatchTable();
+        objectClass = hierarchy.getJREClass(ClassNames.OBJECT);
+        callGraph = new DefaultCallGraph();
+        workList = new ArrayDeque<>();
+        instantiatedClasses = Sets.newSet();
+        virtualCallSites = Maps.newMultiMap();
+        JMethod entry = World.get().getMainMethod();
+        callGraph.addEntryMethod(entry);
+        workList.add(entry);
+        while (!workList.isEmpty()) {
+            JMethod method = workList.poll();
+            if (callGraph.addReachableMethod(method)) {
+                processNewMethod(method);
+            }
+        }
+        return callGraph;
+    }
+
+    private void processNewMethod(JMethod method) {
+        if (method.isAbstract()) {
+            return;
+        }
+        method.getIR().forEach(stmt -> {
+            Type type = getInstantiatedType(stmt);
+            if (type != null) {
+                addInstantiatedClass(getInstantiatedClass(type, objectClass));
+            } else if (stmt instanceof Invoke callSite) {
+                processCallSite(callSite);
+            }
+        });
+    }
+
+    private void processCallSite(Invoke callSite) {
+        if (callSite.isStatic() || callSite.isSpecial()) {
+            addEdge(callSite, dispatchTable.resolveNonVirtual(callSite));
+        } else if (callSite.isVirtual() || callSite.isInterface()) {
+            Subsignature subsignature = callSite.getMethodRef().getSubsignature();
+            virtualCallSites.put(subsignature, callSite);
+            JClass declaringClass = callSite.getMethodRef().getDeclaringClass();
+            for (JClass jclass : instantiatedClasses) {
+                if (hierarchyIndex.isSubtype(declaringClass, jclass)) {
+                    addEdge(callSite, dispatchTable.dispatch(jclass, subsignature));
+                }
+            }
+        }
+    }
+
+    /**
+     * Dispatches the discovered virtual call sites on given class
+     * if it is newly instantiated.
+     */
+    private void addInstantiatedClass(JClass jclass) {
+        if (!instantiatedClasses.add(jclass)) {
+            return;
+        }
+        for (Subsignature subsignature : virtualCallSites.keySet()) {
+            JMethod callee = dispatchTable.dispatch(jclass, subsignature);
+            if (callee != null) {
+                for (Invoke callSite : virtualCallSites.get(subsignature)) {
+                    MethodRef methodRef = callSite.getMethodRef();
+                    if (hierarchyIndex.isSubtype(methodRef.getDeclaringClass(), jclass)) {
+                        addEdge(callSite, callee);
+                    }
+                }
+            }
+        }
+    }
+
+    private void addEdge(Invoke callSite, @Nullable JMethod callee) {
+        if (callee != null && callGraph.addEdge(new Edge<>(
+                CallGraphs.getCallKind(callSite), callSite, callee))) {
+            workList.add(callee);
+        }
+    }
+
+    /**
+     * @return the type of the object instantiated by given statement,
+     * or null if the statement instantiates no object. Besides
+     * {@link New}, string and class literals instantiate
+     * {@code java.lang.String} and {@code java.lang.Class}, and
+     * {@link Catch} is treated as instantiating the caught type,
+     * as exceptions are often created by the JVM or unanalyzed code.
+     */
+    @Nullable
+    static Type getInstantiatedType(Stmt stmt) {
+        if (stmt instanceof New newStmt) {
+            return newStmt.getRValue().getType();
+        } else if (stmt instanceof AssignLiteral assign) {
+            Literal literal = assign.getRValue();
+            if (literal instanceof StringLiteral
+                    || literal instanceof ClassLiteral) {
+                return literal.getType();
+            }
+        } else if (stmt instanceof Catch catchStmt) {
+            return catchStmt.getExceptionRef().getType();
+        }
+        return null;
+    }
+
+    /**
+     * @return the class of objects of given type. As arrays only inherit
+     * methods from java.lang.Object, they are treated as instances of
+     * given object class.
+     */
+    static JClass getInstantiatedClass(Type type, JClass objectClass) {
+        return type instanceof ClassType classType
+                ? classType.getJClass()
+                : objectClass;
+    }
+}
@@ -0,0 +1,290 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import pascal.taie.World;
+import pascal.taie.ir.proginfo.MethodRef;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.LoadArray;
+import pascal.taie.ir.stmt.LoadField;
+import pascal.taie.ir.stmt.StoreArray;
+import pascal.taie.ir.stmt.StoreField;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.ClassNames;
+import pascal.taie.language.classes.HierarchyIndex;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.ClassType;
+import pascal.taie.language.type.ReferenceType;
+import pascal.taie.language.type.Type;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.SetQueue;
+import pascal.taie.util.collection.Sets;
+
+import javax.annotation.Nullable;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Implementation of XTA, which refines {@link RTABuilder RTA} by tracking
+ * the instantiated classes separately for each method and each field.
+ * <p>
+ * The classes instantiated in a method flow to its callees (filtered by
+ * the types of receiver and parameters), to its callers (filtered by
+ * the return type), and to the fields it writes (filtered by the field
+ * types); the classes in the fields flow to the methods which read the
+ * fields. All array elements are merged into a single set.
+ * Virtual calls in a method are dispatched only on the classes
+ * that flow to the method.
+ */
+class XTABuilder implements CGBuilder<Invoke, JMethod> {
+
+    private HierarchyIndex hierarchyIndex;
+
+    private DispatchTable dispatchTable;
+
+    private JClass objectClass;
+
+    private DefaultCallGraph callGraph;
+
+    /**
+     * Methods which are discovered as callees but not processed yet.
+     */
+    private Queue<JMethod> newMethods;
+
+    /**
+     * Methods whose classes need to be propagated.
+     */
+    private Queue<JMethod> dirtyMethods;
+
+    private Map<JMethod, Set<JClass>> methodClasses;
+
+    private Map<JField, Set<JClass>> fieldClasses;
+
+    private Set<JClass> arrayClasses;
+
+    private MultiMap<JMethod, Invoke> virtualCallSites;
+
+    private MultiMap<JMethod, JField> fieldReads;
+
+    private MultiMap<JMethod, JField> fieldWrites;
+
+    private MultiMap<JField, JMethod> fieldReaders;
+
+    private Set<JMethod> arrayReaders;
+
+    private Set<JMethod> arrayWriters;
+
+    @Override
+    public CallGraph<Invoke, JMethod> build() {
+        ClassHierarchy hierarchy = World.get().getClassHierarchy();
+        hierarchyIndex = HierarchyIndex.of(hierarchy);
+        dispatchTable = new DispatchTable();
+        objectClass = hierarchy.getJREClass(ClassNames.OBJECT);
+        callGraph = new DefaultCallGraph();
+        newMethods = new SetQueue<>();
+        dirtyMethods = new SetQueue<>();
+        methodClasses = Maps.newMap();
+        fieldClasses = Maps.newMap();
+        arrayClasses = Sets.newSet();
+        virtualCallSites = Maps.newMultiMap();
+        fieldReads = Maps.newMultiMap();
+        fieldWrites = Maps.newMultiMap();
+        fieldReaders = Maps.newMultiMap();
+        arrayReaders = Sets.newSet();
+        arrayWriters = Sets.newSet();
+        JMethod entry = World.get().getMainMethod();
+        callGraph.addEntryMethod(entry);
+        newMethods.add(entry);
+        while (!newMethods.isEmpty() || !dirtyMethods.isEmpty()) {
+            while (!newMethods.isEmpty()) {
+                JMethod method = newMethods.poll();
+                if (callGraph.addReachableMethod(method)) {
+                    processNewMethod(method);
+                    dirtyMethods.add(method);
+                }
+            }
+            if (!dirtyMethods.isEmpty()) {
+                propagate(dirtyMethods.poll());
+            }
+        }
+        return callGraph;
+    }
+
+    private void processNewMethod(JMethod method) {
+        if (method.isAbstract()) {
+            return;
+        }
+        method.getIR().forEach(stmt -> {
+            Type type = RTABuilder.getInstantiatedType(stmt);
+            if (type != null) {
+                getClasses(method).add(
+                        RTABuilder.getInstantiatedClass(type, objectClass));
+            } else if (stmt instanceof Invoke callSite) {
+                if (callSite.isStatic() || callSite.isSpecial()) {
+                    addEdge(callSite, dispatchTable.resolveNonVirtual(callSite));
+                } else if (callSite.isVirtual() || callSite.isInterface()) {
+                    virtualCallSites.put(method, callSite);
+                }
+            } else if (stmt instanceof LoadField load) {
+                JField field = load.getFieldRef().resolveNullable();
+                if (field != null) {
+                    fieldReads.put(method, field);
+                    fieldReaders.put(field, method);
+                }
+            } else if (stmt instanceof StoreField store) {
+                JField field = store.getFieldRef().resolveNullable();
+                if (field != null) {
+                    fieldWrites.put(method, field);
+                }
+            } else if (stmt instanceof LoadArray) {
+                arrayReaders.add(method);
+            } else if (stmt instanceof StoreArray) {
+                arrayWriters.add(method);
+            }
+        });
+    }
+
+    /**
+     * Propagates the classes of given method, and dispatches
+     * the virtual call sites in the method on the classes.
+     */
+    private void propagate(JMethod method) {
+        Set<JClass> classes = getClasses(method);
+        // pull classes from the fields and arrays read by the method
+        for (JField field : fieldReads.get(method)) {
+            addClasses(classes, getClasses(field), accepts(field.getType()));
+        }
+        if (arrayReaders.contains(method)) {
+            classes.addAll(arrayClasses);
+        }
+        // dispatch virtual calls; the classes are copied, as adding edges
+        // may lead to modification of them (e.g., on recursive calls)
+        List<JClass> snapshot = List.copyOf(classes);
+        for (Invoke callSite : virtualCallSites.get(method)) {
+            MethodRef methodRef = callSite.getMethodRef();
+            JClass declaringClass = methodRef.getDeclaringClass();
+            for (JClass jclass : snapshot) {
+                if (hierarchyIndex.isSubtype(declaringClass, jclass)) {
+                    addEdge(callSite, dispatchTable.dispatch(
+                            jclass, methodRef.getSubsignature()));
+                }
+            }
+        }
+        // push classes to callees, callers, fields and arrays
+        for (Invoke callSite : callGraph.getCallSitesIn(method)) {
+            for (JMethod callee : callGraph.getCalleesOf(callSite)) {
+                if (addClasses(getClasses(callee), classes, acceptsArgs(callee))) {
+                    dirtyMethods.add(callee);
+                }
+            }
+        }
+        Predicate<JClass> acceptsReturn = accepts(method.getReturnType());
+        for (Invoke callSite : callGraph.getCallersOf(method)) {
+            JMethod caller = callSite.getContainer();
+            if (addClasses(getClasses(caller), classes, acceptsReturn)) {
+                dirtyMethods.add(caller);
+            }
+        }
+        for (JField field : fieldWrites.get(method)) {
+            if (addClasses(getClasses(field), classes, accepts(field.getType()))) {
+                dirtyMethods.addAll(fieldReaders.get(field));
+            }
+        }
+        if (arrayWriters.contains(method) && arrayClasses.addAll(classes)) {
+            dirtyMethods.addAll(arrayReaders);
+        }
+    }
+
+    private void addEdge(Invoke callSite, @Nullable JMethod callee) {
+        if (callee != null && callGraph.addEdge(new Edge<>(
+                CallGraphs.getCallKind(callSite), callSite, callee))) {
+            newMethods.add(callee);
+            // classes flow along the new edge in both directions
+            dirtyMethods.add(callSite.getContainer());
+            dirtyMethods.add(callee);
+        }
+    }
+
+    /**
+     * Adds the classes in source that satisfy given filter to target.
+     *
+     * @return true if target changed as a result of the call, otherwise false.
+     */
+    private static boolean addClasses(Set<JClass> target, Set<JClass> source,
+                                      Predicate<JClass> filter) {
+        if (target == source) {
+            return false;
+        }
+        boolean changed = false;
+        for (JClass jclass : source) {
+            if (filter.test(jclass)) {
+                changed |= target.add(jclass);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * @return a filter which accepts the classes whose instances
+     * can be assigned to given type.
+     */
+    private Predicate<JClass> accepts(Type type) {
+        if (type instanceof ClassType classType) {
+            JClass jclass = classType.getJClass();
+            return c -> hierarchyIndex.isSubtype(jclass, c);
+        } else if (type instanceof ReferenceType) {
+            // arrays are represented by java.lang.Object
+            return c -> c == objectClass;
+        } else {
+            return c -> false;
+        }
+    }
+
+    /**
+     * @return a filter which accepts the classes whose instances
+     * can be passed to given method as the receiver or arguments.
+     */
+    private Predicate<JClass> acceptsArgs(JMethod method) {
+        Predicate<JClass> filter = method.isStatic()
+                ? c -> false
+                : accepts(method.getDeclaringClass().getType());
+        for (Type paramType : method.getParamTypes()) {
+            filter = filter.or(accepts(paramType));
+        }
+        return filter;
+    }
+
+    private Set<JClass> getClasses(JMethod method) {
+        return methodClasses.computeIfAbsent(method, m -> Sets.newHybridSet());
+    }
+
+    private Set<JClass> getClasses(JField field) {
+        return fieldClasses.computeIfAbsent(field, f -> Sets.newHybridSet());
+    }
+}
@@ -24,6 +24,10 @@ package pascal.taie.analysis.graph.icfg;
 
 import pascal.taie.util.graph.Graph;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.stream.Stream;
 
@@ -74,6 +78,42 @@ public interface ICFG<Method, Node> extends Graph<Node> {
      */
     Set<Node> getCallersOf(Method method);
 
+    /**
+     * Returns the nodes of the given method. By default, the nodes are
+     * collected by traversing the intra-procedural edges (in both directions)
+     * from the entry and the exit of the method, which is proportional to
+     * the size of the method, and subclasses may provide faster lookup.
+     *
+     * @return the nodes of the given method.
+     */
+    default Set<Node> getNodesOf(Method method) {
+        Set<Node> nodes = new LinkedHashSet<>();
+        Deque<Node> workList = new ArrayDeque<>();
+        for (Node node : List.of(getEntryOf(method), getExitOf(method))) {
+            if (nodes.add(node)) {
+                workList.push(node);
+            }
+        }
+        while (!workList.isEmpty()) {
+            Node node = workList.pop();
+            for (ICFGEdge<Node> edge : getOutEdgesOf(node)) {
+                if (isIntraEdge(edge) && nodes.add(edge.getTarget())) {
+                    workList.push(edge.getTarget());
+                }
+            }
+            for (ICFGEdge<Node> edge : getInEdgesOf(node)) {
+                if (isIntraEdge(edge) && nodes.add(edge.getSource())) {
+                    workList.push(edge.getSource());
+                }
+            }
+        }
+        return nodes;
+    }
+
+    private static boolean isIntraEdge(ICFGEdge<?> edge) {
+        return edge instanceof NormalEdge || edge instanceof CallToReturnEdge;
+    }
+
     /**
      * @return the method that contains the given node.
      */
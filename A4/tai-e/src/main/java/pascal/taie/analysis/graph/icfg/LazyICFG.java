@@ -0,0 +1,330 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.icfg;
+
+import pascal.taie.analysis.exception.ThrowAnalysis;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Return;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.ClassType;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
+import pascal.taie.util.collection.Views;
+
+import java.lang.ref.SoftReference;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * ICFG which is materialized lazily, method by method.
+ * <p>
+ * Unlike {@link DefaultICFG}, which connects the CFGs of all reachable
+ * methods up front, this ICFG builds the edges of the nodes in a method
+ * (including the call edges into the method and the return edges out of
+ * it) when the method is first touched. The edges of each method are held
+ * by soft references, so the edges of cold methods can be reclaimed under
+ * memory pressure, and they are rebuilt if the method is touched again.
+ * <p>
+ * The CFG of a method is also built when the method is first touched,
+ * if it has not been built yet. This ICFG has two limits:
+ * <ul>
+ *     <li>It only saves the CFGs that are absent. If the analysis plan
+ *     runs the cfg analysis (e.g., because the icfg analysis is in the
+ *     plan), then the CFGs of all reachable methods are still built
+ *     up front.</li>
+ *     <li>The CFGs are kept in the IRs and are never evicted, as the entry
+ *     and exit nodes of a method must stay the same while an analysis
+ *     holds facts on them. Only the edges are reclaimable.</li>
+ * </ul>
+ * <p>
+ * Clients should enumerate the nodes method by method via
+ * {@link #getNodesOf}, starting from the entry methods. Note that
+ * {@link #getNodes()} and {@link #hasNode} have to build the CFGs of
+ * all reachable methods.
+ */
+public class LazyICFG extends AbstractICFG<JMethod, Stmt> {
+
+    private static final AnalysisConfig THROW_CONFIG = new AnalysisConfig(
+            ThrowAnalysis.ID, "exception", "explicit", "algorithm", "intra");
+
+    private static final AnalysisConfig CFG_CONFIG = new AnalysisConfig(
+            CFGBuilder.ID, "exception", "explicit", "dump", false);
+
+    private final ConcurrentMap<JMethod, SoftReference<Slice>> slices =
+            new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<Stmt, JMethod> stmtToMethod =
+            new ConcurrentHashMap<>();
+
+    private volatile Set<Stmt> nodes;
+
+    public LazyICFG(CallGraph<Stmt, JMethod> callGraph) {
+        super(callGraph);
+    }
+
+    @Override
+    public Set<ICFGEdge<Stmt>> getInEdgesOf(Stmt stmt) {
+        return getSlice(getContainingMethodOf(stmt)).inEdges.get(stmt);
+    }
+
+    @Override
+    public Set<ICFGEdge<Stmt>> getOutEdgesOf(Stmt stmt) {
+        return getSlice(getContainingMethodOf(stmt)).outEdges.get(stmt);
+    }
+
+    @Override
+    public Stmt getEntryOf(JMethod method) {
+        Stmt entry = getCFGOf(method).getEntry();
+        stmtToMethod.put(entry, method);
+        return entry;
+    }
+
+    @Override
+    public Stmt getExitOf(JMethod method) {
+        Stmt exit = getCFGOf(method).getExit();
+        stmtToMethod.put(exit, method);
+        return exit;
+    }
+
+    @Override
+    public Set<Stmt> getReturnSitesOf(Stmt callSite) {
+        assert isCallSite(callSite);
+        return getCFGOf(getContainingMethodOf(callSite)).getSuccsOf(callSite);
+    }
+
+    @Override
+    public Set<Stmt> getNodesOf(JMethod method) {
+        CFG<Stmt> cfg = getCFGOf(method);
+        cfg.forEach(stmt -> stmtToMethod.put(stmt, method));
+        return cfg.getNodes();
+    }
+
+    @Override
+    public JMethod getContainingMethodOf(Stmt stmt) {
+        JMethod method = stmtToMethod.get(stmt);
+        if (method == null) {
+            if (isCallSite(stmt)) {
+                method = callGraph.getContainerOf((Invoke) stmt);
+            }
+            if (method == null) {
+                throw new AnalysisException(stmt +
+                        " is not in the methods touched by this ICFG");
+            }
+        }
+        return method;
+    }
+
+    @Override
+    public boolean isCallSite(Stmt stmt) {
+        return stmt instanceof Invoke;
+    }
+
+    @Override
+    public boolean hasNode(Stmt stmt) {
+        return stmtToMethod.containsKey(stmt) || getNodes().contains(stmt);
+    }
+
+    @Override
+    public boolean hasEdge(Stmt source, Stmt target) {
+        return getOutEdgesOf(source)
+                .stream()
+                .anyMatch(edge -> edge.getTarget().equals(target));
+    }
+
+    @Override
+    public Set<Stmt> getPredsOf(Stmt stmt) {
+        return Views.toMappedSet(getInEdgesOf(stmt), ICFGEdge::getSource);
+    }
+
+    @Override
+    public Set<Stmt> getSuccsOf(Stmt stmt) {
+        return Views.toMappedSet(getOutEdgesOf(stmt), ICFGEdge::getTarget);
+    }
+
+    @Override
+    public Set<Stmt> getNodes() {
+        Set<Stmt> result = nodes;
+        if (result == null) {
+            synchronized (this) {
+                result = nodes;
+                if (result == null) {
+                    Set<Stmt> allNodes = new LinkedHashSet<>();
+                    callGraph.reachableMethods().forEach(method -> {
+                        CFG<Stmt> cfg = getOrBuildCFGOf(method);
+                        if (cfg != null) {
+                            cfg.forEach(stmt -> {
+                                stmtToMethod.put(stmt, method);
+                                allNodes.add(stmt);
+                            });
+                        }
+                    });
+                    nodes = result = Collections.unmodifiableSet(allNodes);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return true if the edges of given method are built and have not
+     * been reclaimed, otherwise false.
+     */
+    boolean hasSlice(JMethod method) {
+        SoftReference<Slice> ref = slices.get(method);
+        return ref != null && ref.get() != null;
+    }
+
+    private static CFG<Stmt> getCFGOf(JMethod method) {
+        CFG<Stmt> cfg = getOrBuildCFGOf(method);
+        if (cfg == null) {
+            throw new AnalysisException("CFG of " + method + " is absent");
+        }
+        return cfg;
+    }
+
+    /**
+     * @return the CFG of given method, which is built and stored in the IR
+     * of the method if absent, or null if the method has no body.
+     */
+    private static CFG<Stmt> getOrBuildCFGOf(JMethod method) {
+        if (method.isAbstract()) {
+            return null;
+        }
+        IR ir = method.getIR();
+        synchronized (ir) {
+            CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+            if (cfg == null) {
+                if (ir.getResult(ThrowAnalysis.ID) == null) {
+                    ir.storeResult(ThrowAnalysis.ID,
+                            new ThrowAnalysis(THROW_CONFIG).analyze(ir));
+                }
+                cfg = new CFGBuilder(CFG_CONFIG).analyze(ir);
+                ir.storeResult(CFGBuilder.ID, cfg);
+            }
+            return cfg;
+        }
+    }
+
+    private Slice getSlice(JMethod method) {
+        SoftReference<Slice> ref = slices.get(method);
+        Slice slice = ref != null ? ref.get() : null;
+        if (slice == null) {
+            // slices are immutable, thus it is harmless if multiple
+            // threads build the slice of the same method
+            slice = new Slice(method);
+            slices.put(method, new SoftReference<>(slice));
+        }
+        return slice;
+    }
+
+    /**
+     * The edges of the nodes in a method.
+     */
+    private class Slice {
+
+        private final MultiMap<Stmt, ICFGEdge<Stmt>> inEdges = Maps.newMultiMap();
+
+        private final MultiMap<Stmt, ICFGEdge<Stmt>> outEdges = Maps.newMultiMap();
+
+        private Slice(JMethod method) {
+            CFG<Stmt> cfg = getCFGOf(method);
+            // intra-procedural edges, and edges between call sites
+            // in this method and the callees
+            cfg.forEach(stmt -> {
+                stmtToMethod.put(stmt, method);
+                cfg.getOutEdgesOf(stmt).forEach(edge -> {
+                    ICFGEdge<Stmt> local = isCallSite(stmt) ?
+                            new CallToReturnEdge<>(edge) :
+                            new NormalEdge<>(edge);
+                    outEdges.put(stmt, local);
+                    inEdges.put(edge.getTarget(), local);
+                });
+                if (isCallSite(stmt)) {
+                    for (JMethod callee : getCalleesOf(stmt)) {
+                        CFG<Stmt> calleeCFG = getOrBuildCFGOf(callee);
+                        if (calleeCFG == null) {
+                            continue;
+                        }
+                        Stmt calleeEntry = calleeCFG.getEntry();
+                        stmtToMethod.put(calleeEntry, callee);
+                        outEdges.put(stmt, new CallEdge<>(stmt, calleeEntry, callee));
+                        for (Stmt retSite : cfg.getSuccsOf(stmt)) {
+                            inEdges.put(retSite, newReturnEdge(
+                                    calleeCFG, retSite, stmt));
+                        }
+                    }
+                }
+            });
+            // edges from call sites of other methods to this method
+            Stmt entry = cfg.getEntry();
+            Stmt exit = cfg.getExit();
+            for (Stmt callSite : getCallersOf(method)) {
+                JMethod caller = callGraph.getContainerOf(callSite);
+                CFG<Stmt> callerCFG = getOrBuildCFGOf(caller);
+                if (callerCFG == null) {
+                    continue;
+                }
+                stmtToMethod.put(callSite, caller);
+                inEdges.put(entry, new CallEdge<>(callSite, entry, method));
+                for (Stmt retSite : callerCFG.getSuccsOf(callSite)) {
+                    stmtToMethod.put(retSite, caller);
+                    outEdges.put(exit, newReturnEdge(cfg, retSite, callSite));
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the return edge from the exit of the callee (given by its CFG)
+     * to given return site of given call site.
+     */
+    private static ReturnEdge<Stmt> newReturnEdge(
+            CFG<Stmt> calleeCFG, Stmt retSite, Stmt callSite) {
+        Set<Var> retVars = Sets.newHybridSet();
+        Set<ClassType> exceptions = Sets.newHybridSet();
+        Stmt exit = calleeCFG.getExit();
+        for (Edge<Stmt> edge : calleeCFG.getInEdgesOf(exit)) {
+            if (edge.getKind() == Edge.Kind.RETURN &&
+                    ((Return) edge.getSource()).getValue() != null) {
+                retVars.add(((Return) edge.getSource()).getValue());
+            }
+            if (edge.isExceptional()) {
+                exceptions.addAll(edge.getExceptions());
+            }
+        }
+        return new ReturnEdge<>(exit, retSite, callSite, retVars, exceptions);
+    }
+}
@@ -26,11 +26,15 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import pascal.taie.ir.proginfo.MethodRef;
 import pascal.taie.util.AnalysisException;
+import pascal.taie.util.collection.Maps;
 
 import javax.annotation.Nullable;
 import java.util.Collection;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -95,8 +99,36 @@ public class ClassHierarchyImpl implements ClassHierarchy {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Index for fast subtype queries, which is built on demand,
+     * and discarded when a class is added.
+     */
+    private volatile HierarchyIndex index;
+
+    /**
+     * Caches of {@link #lookupMethod} (with and without abstract methods
+     * allowed), which map each class and subsignature to the resulting
+     * method, or empty if no method is found.
+     */
+    private final ConcurrentMap<JClass, ConcurrentMap<Subsignature, Optional<JMethod>>> methodCache
+            = Maps.newConcurrentMap();
+
+    private final ConcurrentMap<JClass, ConcurrentMap<Subsignature, Optional<JMethod>>> concreteMethodCache
+            = Maps.newConcurrentMap();
+
+    /**
+     * Caches of {@link #lookupMethodFromSuperinterfaces}.
+     */
+    private final ConcurrentMap<JClass, ConcurrentMap<Subsignature, Optional<JMethod>>> interfaceMethodCache
+            = Maps.newConcurrentMap();
+
+    private final ConcurrentMap<JClass, ConcurrentMap<Subsignature, Optional<JMethod>>> concreteInterfaceMethodCache
+            = Maps.newConcurrentMap();
+
     @Override
     public void addClass(JClass jclass) {
+        index = null;
+        clearMethodCaches();
         // Add direct subinterface
         if (jclass.isInterface()) {
             jclass.getInterfaces().forEach(iface ->
@@ -119,6 +151,17 @@ public class ClassHierarchyImpl implements ClassHierarchy {
         }
     }
 
+    /**
+     * Clears the cached results of method lookup, which may change
+     * when a class is added to the hierarchy.
+     */
+    private void clearMethodCaches() {
+        methodCache.clear();
+        concreteMethodCache.clear();
+        interfaceMethodCache.clear();
+        concreteInterfaceMethodCache.clear();
+    }
+
     @Override
     public Stream<JClass> allClasses() {
         return loaders.values()
@@ -160,6 +203,33 @@ public class ClassHierarchyImpl implements ClassHierarchy {
         return directSubclasses.getOrDefault(jclass, Set.of());
     }
 
+    /**
+     * @return the index of this class hierarchy for fast subtype queries.
+     */
+    public HierarchyIndex getHierarchyIndex() {
+        HierarchyIndex result = index;
+        if (result == null) {
+            synchronized (this) {
+                result = index;
+                if (result == null) {
+                    result = new HierarchyIndex(this);
+                    index = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Whether the guard in {@link #checkCHA()} is enabled, which is given by
+     * system property {@code taie.check-cha}. As this flag is a constant,
+     * the guard is removed entirely by the JIT compiler when it is disabled,
+     * thus it costs nothing in production runs.
+     */
+    private static final boolean CHECK_CHA_ENABLED = Boolean.getBoolean("taie.check-cha");
+
+    private static final String CHA_BUILDER = "pascal.taie.analysis.graph.callgraph.CHABuilder";
+
     private static boolean checkCHA = false;
 
     public static void setCheckCHA(boolean checkCHA) {
@@ -167,13 +237,13 @@ public class ClassHierarchyImpl implements ClassHierarchy {
     }
 
     private static void checkCHA() {
-        if (checkCHA) {
-            StackTraceElement[] stack = Thread.currentThread().getStackTrace();
-            for (StackTraceElement e : stack) {
-                if (e.getClassName().equals("pascal.taie.analysis.graph.callgraph.CHABuilder")) {
-                    throw new AnalysisException("You are NOT allowed to use" +
-                            " ClassHierarchyImpl.resolveMethod(MethodRef) in this assignment ╮(╯▽╰)╭");
-                }
+        if (CHECK_CHA_ENABLED && checkCHA) {
+            // walk the stack lazily, instead of capturing the whole stack trace
+            boolean calledByCHABuilder = StackWalker.getInstance().walk(frames ->
+                    frames.anyMatch(f -> f.getClassName().equals(CHA_BUILDER)));
+            if (calledByCHABuilder) {
+                throw new AnalysisException("You are NOT allowed to use" +
+                        " ClassHierarchyImpl.resolveMethod(MethodRef) in this assignment ╮(╯▽╰)╭");
             }
         }
     }
@@ -193,8 +263,41 @@ public class ClassHierarchyImpl implements ClassHierarchy {
         return null;
     }
 
+    /**
+     * Looks up the method, and memoizes the result (including null)
+     * in the cache of given kind of lookup.
+     */
+    private @Nullable JMethod lookupCached(
+            ConcurrentMap<JClass, ConcurrentMap<Subsignature, Optional<JMethod>>> cache,
+            JClass jclass, Subsignature subsignature,
+            Supplier<JMethod> lookup) {
+        ConcurrentMap<Subsignature, Optional<JMethod>> methods = cache.get(jclass);
+        if (methods == null) {
+            methods = Maps.newConcurrentMap();
+            ConcurrentMap<Subsignature, Optional<JMethod>> prev = cache.putIfAbsent(jclass, methods);
+            if (prev != null) {
+                methods = prev;
+            }
+        }
+        Optional<JMethod> result = methods.get(subsignature);
+        if (result == null) {
+            // the lookup is not performed inside computeIfAbsent(),
+            // as it may (recursively) look up other cached results
+            result = Optional.ofNullable(lookup.get());
+            methods.putIfAbsent(subsignature, result);
+        }
+        return result.orElse(null);
+    }
+
     private JMethod lookupMethod(JClass jclass, Subsignature subsignature,
                                  boolean allowAbstract) {
+        return lookupCached(allowAbstract ? methodCache : concreteMethodCache,
+                jclass, subsignature,
+                () -> doLookupMethod(jclass, subsignature, allowAbstract));
+    }
+
+    private JMethod doLookupMethod(JClass jclass, Subsignature subsignature,
+                                   boolean allowAbstract) {
         for (JClass c = jclass; c != null; c = c.getSuperClass()) {
             JMethod method = c.getDeclaredMethod(subsignature);
             if (method != null && (allowAbstract || !method.isAbstract())) {
@@ -215,6 +318,13 @@ public class ClassHierarchyImpl implements ClassHierarchy {
 
     private JMethod lookupMethodFromSuperinterfaces(
             JClass jclass, Subsignature subsignature, boolean allowAbstract) {
+        return lookupCached(allowAbstract ? interfaceMethodCache : concreteInterfaceMethodCache,
+                jclass, subsignature,
+                () -> doLookupMethodFromSuperinterfaces(jclass, subsignature, allowAbstract));
+    }
+
+    private JMethod doLookupMethodFromSuperinterfaces(
+            JClass jclass, Subsignature subsignature, boolean allowAbstract) {
         JMethod method = jclass.getDeclaredMethod(subsignature);
         if (method != null && (allowAbstract || !method.isAbstract())) {
             return method;
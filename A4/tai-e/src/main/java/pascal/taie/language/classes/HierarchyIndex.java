@@ -0,0 +1,265 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.language.classes;
+
+import pascal.taie.util.collection.Maps;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Index of a class hierarchy for fast subtype queries.
+ * <p>
+ * The classes (excluding interfaces) form trees by their superclasses.
+ * Each class is numbered by pre-order traversal of the trees, and also
+ * records the largest number in its subtree, so that the subclasses of
+ * a class occupy an interval of the numbers, and checking whether a class
+ * is a subclass of another takes constant time.
+ * <p>
+ * The subtypes of each interface are computed on demand and cached as
+ * bit sets indexed by the pre-order numbers, which are built from the
+ * intervals of the implementors.
+ * <p>
+ * The index is immutable: it reflects the hierarchy at the time it is built.
+ */
+public class HierarchyIndex {
+
+    private final ClassHierarchy hierarchy;
+
+    /**
+     * Pre-order number of each class and interface. Interfaces are
+     * numbered after all classes.
+     */
+    private final Map<JClass, Integer> numbers = Maps.newMap();
+
+    /**
+     * Classes and interfaces ordered by their numbers.
+     */
+    private final List<JClass> classes = new ArrayList<>();
+
+    /**
+     * The largest number in the subtree of each class, indexed by numbers.
+     * For interfaces, it is the number of the interface itself.
+     */
+    private final int[] ends;
+
+    private final ConcurrentMap<JClass, BitSet> interfaceSubtypes = Maps.newConcurrentMap();
+
+    private final ConcurrentMap<JClass, Set<JClass>> subtypes = Maps.newConcurrentMap();
+
+    private final ConcurrentMap<JClass, Set<JClass>> concreteSubtypes = Maps.newConcurrentMap();
+
+    /**
+     * @return the index of given class hierarchy. If the hierarchy maintains
+     * its index, then the maintained one is returned; otherwise,
+     * a new index is built.
+     */
+    public static HierarchyIndex of(ClassHierarchy hierarchy) {
+        return hierarchy instanceof ClassHierarchyImpl hierarchyImpl
+                ? hierarchyImpl.getHierarchyIndex()
+                : new HierarchyIndex(hierarchy);
+    }
+
+    HierarchyIndex(ClassHierarchy hierarchy) {
+        this.hierarchy = hierarchy;
+        List<JClass> interfaces = new ArrayList<>();
+        List<Integer> ends = new ArrayList<>();
+        hierarchy.allClasses().forEach(c -> {
+            if (c.isInterface()) {
+                interfaces.add(c);
+            } else if (c.getSuperClass() == null) {
+                // roots of the class trees, e.g., java.lang.Object
+                numberSubtree(c, ends);
+            }
+        });
+        // classes whose superclasses are absent from the hierarchy
+        hierarchy.allClasses().forEach(c -> {
+            if (!c.isInterface() && !numbers.containsKey(c)) {
+                numberSubtree(c, ends);
+            }
+        });
+        for (JClass iface : interfaces) {
+            int number = classes.size();
+            numbers.put(iface, number);
+            classes.add(iface);
+            ends.add(number);
+        }
+        this.ends = ends.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Numbers the classes in the subtree rooted by given class in pre-order.
+     * The traversal is iterative, as deep hierarchies may overflow the stack.
+     */
+    private void numberSubtree(JClass root, List<Integer> ends) {
+        Deque<JClass> nodes = new ArrayDeque<>();
+        Deque<Iterator<JClass>> children = new ArrayDeque<>();
+        visit(root, ends);
+        nodes.push(root);
+        children.push(hierarchy.getDirectSubclassesOf(root).iterator());
+        while (!nodes.isEmpty()) {
+            Iterator<JClass> it = children.peek();
+            if (it.hasNext()) {
+                JClass child = it.next();
+                if (!numbers.containsKey(child)) {
+                    visit(child, ends);
+                    nodes.push(child);
+                    children.push(hierarchy.getDirectSubclassesOf(child).iterator());
+                }
+            } else {
+                JClass node = nodes.pop();
+                children.pop();
+                ends.set(numbers.get(node), classes.size() - 1);
+            }
+        }
+    }
+
+    private void visit(JClass jclass, List<Integer> ends) {
+        numbers.put(jclass, classes.size());
+        classes.add(jclass);
+        ends.add(-1);
+    }
+
+    /**
+     * @return true if subtype is a subtype of (or the same as) supertype,
+     * otherwise false.
+     */
+    public boolean isSubtype(JClass supertype, JClass subtype) {
+        if (supertype == subtype) {
+            return true;
+        }
+        Integer sup = numbers.get(supertype);
+        Integer sub = numbers.get(subtype);
+        if (sup == null || sub == null) {
+            return false;
+        }
+        if (supertype.isInterface()) {
+            return getInterfaceSubtypes(supertype).get(sub);
+        }
+        if (subtype.isInterface()) {
+            // interfaces are only subtypes of the root class
+            return supertype.getSuperClass() == null;
+        }
+        return sup <= sub && sub <= ends[sup];
+    }
+
+    /**
+     * @return all subtypes of given class or interface, including itself.
+     */
+    public Set<JClass> getSubtypesOf(JClass jclass) {
+        Set<JClass> result = subtypes.get(jclass);
+        if (result == null) {
+            result = Collections.unmodifiableSet(collectSubtypes(jclass));
+            subtypes.putIfAbsent(jclass, result);
+        }
+        return result;
+    }
+
+    /**
+     * @return all subtypes of given class or interface that are neither
+     * abstract classes nor interfaces, including itself.
+     */
+    public Set<JClass> getConcreteSubtypesOf(JClass jclass) {
+        Set<JClass> result = concreteSubtypes.get(jclass);
+        if (result == null) {
+            Set<JClass> set = collectSubtypes(jclass);
+            set.removeIf(c -> c.isInterface() || c.isAbstract());
+            result = Collections.unmodifiableSet(set);
+            concreteSubtypes.putIfAbsent(jclass, result);
+        }
+        return result;
+    }
+
+    private Set<JClass> collectSubtypes(JClass jclass) {
+        Integer number = numbers.get(jclass);
+        if (number == null) {
+            // the class is absent from the hierarchy
+            Set<JClass> set = new LinkedHashSet<>();
+            set.add(jclass);
+            return set;
+        }
+        BitSet bits;
+        if (jclass.isInterface()) {
+            bits = getInterfaceSubtypes(jclass);
+        } else {
+            bits = new BitSet(classes.size());
+            bits.set(number, ends[number] + 1);
+        }
+        Set<JClass> set = new LinkedHashSet<>(bits.cardinality());
+        for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+            set.add(classes.get(i));
+        }
+        return set;
+    }
+
+    /**
+     * @return the numbers of all subtypes of given interface, including itself.
+     * The result must not be modified.
+     */
+    private BitSet getInterfaceSubtypes(JClass iface) {
+        BitSet result = interfaceSubtypes.get(iface);
+        if (result == null) {
+            result = new BitSet(classes.size());
+            // collect the interface and its subinterfaces
+            Deque<JClass> workList = new ArrayDeque<>();
+            workList.add(iface);
+            result.set(numbers.get(iface));
+            while (!workList.isEmpty()) {
+                JClass i = workList.poll();
+                for (JClass sub : hierarchy.getDirectSubinterfacesOf(i)) {
+                    Integer n = numbers.get(sub);
+                    if (n != null && !result.get(n)) {
+                        result.set(n);
+                        workList.add(sub);
+                    }
+                }
+                // implementors and their subclasses are intervals
+                addImplementors(hierarchy.getDirectImplementorsOf(i), result);
+            }
+            BitSet prev = interfaceSubtypes.putIfAbsent(iface, result);
+            if (prev != null) {
+                result = prev;
+            }
+        }
+        return result;
+    }
+
+    private void addImplementors(Collection<JClass> implementors, BitSet result) {
+        for (JClass impl : implementors) {
+            Integer n = numbers.get(impl);
+            if (n != null) {
+                result.set(n, ends[n] + 1);
+            }
+        }
+    }
+}
@@ -22,9 +22,22 @@
 
 package pascal.taie.analysis.dataflow.analysis.constprop;
 
+import org.junit.Assert;
 import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
 import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.dataflow.inter.InterConstantPropagation;
+import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.analysis.graph.icfg.ICFGBuilder;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.HashMap;
+import java.util.Map;
 
 public class InterCPTest {
 
@@ -38,6 +51,20 @@ public class InterCPTest {
         );
     }
 
+    void testWithSolver(String inputClass, String solver) {
+        testWithOptions(inputClass, "solver:" + solver);
+    }
+
+    void testWithOptions(String inputClass, String opts) {
+        testWithOptions(inputClass, opts, "algorithm:cha");
+    }
+
+    void testWithOptions(String inputClass, String opts, String cgOpts) {
+        Tests.test(inputClass, CLASS_PATH, InterConstantPropagation.ID,
+                "edge-refine:false;alias-aware:false;" + opts,
+                "-a", "cg=" + cgOpts);
+    }
+
     @Test
     public void testExample() {
         test("Example");
@@ -57,4 +84,131 @@ public class InterCPTest {
     public void testMultiIntArgs() {
         test("MultiIntArgs");
     }
+
+    @Test
+    public void testFibonacciWithSummaries() {
+        testWithSolver("Fibonacci", "summary");
+    }
+
+    @Test
+    public void testMultiIntArgsWithSummaries() {
+        testWithSolver("MultiIntArgs", "summary");
+    }
+
+    @Test
+    public void testExampleInParallel() {
+        testWithSolver("Example", "parallel");
+    }
+
+    @Test
+    public void testFibonacciInParallel() {
+        testWithSolver("Fibonacci", "parallel");
+    }
+
+    @Test
+    public void testReferenceWithLazyICFG() {
+        testWithOptions("Reference", "lazy-icfg:true");
+    }
+
+    @Test
+    public void testFibonacciWithFrozenCG() {
+        // the lazy ICFG queries the callers and callees of the CSR call graph
+        testWithOptions("Fibonacci", "lazy-icfg:true", "algorithm:cha;freeze:true");
+    }
+
+    @Test
+    public void testMultiIntArgsWithFrozenCG() {
+        testWithOptions("MultiIntArgs", "solver:worklist", "algorithm:cha;freeze:true");
+    }
+
+    @Test
+    public void testSummaryAnswersCoveredCall() {
+        buildICFG("Summaries");
+        JMethod inc = getMethod("inc");
+        // counts the transfers of the nodes of inc
+        Map<Stmt, Integer> transfers = new HashMap<>();
+        InterConstantPropagation analysis = new InterConstantPropagation(
+                new AnalysisConfig(InterConstantPropagation.ID,
+                        "edge-refine", false, "alias-aware", false,
+                        "solver", "summary")) {
+            @Override
+            public boolean transferNode(Stmt stmt, CPFact in, CPFact out) {
+                if (icfg.getContainingMethodOf(stmt).equals(inc)) {
+                    transfers.merge(stmt, 1, Integer::sum);
+                }
+                return super.transferNode(stmt, in, out);
+            }
+        };
+        DataflowResult<Stmt, CPFact> result = solve(analysis);
+        // inc is solved for main before q is entered, and the call in q
+        // passes the same fact, so inc must not be entered again
+        Assert.assertTrue(transfers.keySet().containsAll(inc.getIR().getStmts()));
+        transfers.forEach((stmt, n) -> Assert.assertEquals(
+                "times " + stmt + " is transferred", 1, n.intValue()));
+        IR q = getMethod("q").getIR();
+        CPFact out = result.getOutFact(q.getStmt(q.getStmts().size() - 1));
+        Assert.assertEquals(Value.makeConstant(2), out.get(q.getVars()
+                .stream()
+                .filter(v -> v.getName().equals("b"))
+                .findFirst()
+                .orElseThrow()));
+    }
+
+    @Test
+    public void testParallelSolverIsDeterministic() {
+        // the callees are shared by several callers, so the facts
+        // crossing methods arrive in different orders across runs
+        buildICFG("ManyCallers");
+        ICFG<JMethod, Stmt> icfg = World.get().getResult(ICFGBuilder.ID);
+        DataflowResult<Stmt, CPFact> expected = solve(newAnalysis(
+                "solver", "worklist", "lazy-icfg", false));
+        for (boolean lazy : new boolean[]{ false, true }) {
+            for (int i = 0; i < 20; ++i) {
+                DataflowResult<Stmt, CPFact> result = solve(newAnalysis(
+                        "solver", "parallel", "lazy-icfg", lazy));
+                for (Stmt stmt : icfg) {
+                    Assert.assertEquals("IN fact of " + stmt,
+                            expected.getInFact(stmt), result.getInFact(stmt));
+                    Assert.assertEquals("OUT fact of " + stmt,
+                            expected.getOutFact(stmt), result.getOutFact(stmt));
+                }
+            }
+        }
+    }
+
+    /**
+     * Builds the call graph and ICFG of given program.
+     */
+    private static void buildICFG(String main) {
+        Main.main(new String[]{
+                "-pp", "-cp", CLASS_PATH, "-m", main,
+                "-a", "cg=algorithm:cha", "-a", "icfg"});
+    }
+
+    private static InterConstantPropagation newAnalysis(Object... options) {
+        Object[] opts = new Object[options.length + 4];
+        opts[0] = "edge-refine";
+        opts[1] = false;
+        opts[2] = "alias-aware";
+        opts[3] = false;
+        System.arraycopy(options, 0, opts, 4, options.length);
+        return new InterConstantPropagation(
+                new AnalysisConfig(InterConstantPropagation.ID, opts));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static DataflowResult<Stmt, CPFact> solve(
+            InterConstantPropagation analysis) {
+        return (DataflowResult<Stmt, CPFact>) analysis.analyze();
+    }
+
+    private static JMethod getMethod(String name) {
+        return World.get().getMainMethod()
+                .getDeclaringClass()
+                .getDeclaredMethods()
+                .stream()
+                .filter(m -> m.getName().equals(name))
+                .findFirst()
+                .orElseThrow();
+    }
 }
@@ -0,0 +1,84 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.ifds;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.analysis.dataflow.analysis.constprop.Value;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+public class IDETest {
+
+    private static final String CLASS_PATH = "src/test/resources/dataflow/constprop/inter";
+
+    private static IDEResult<Stmt, Var, Value> solve(String main) {
+        Main.main(new String[]{
+                "-pp", "-cp", CLASS_PATH, "-m", main,
+                "-a", "cg=algorithm:cha", "-a", LinearConstantPropagation.ID });
+        return World.get().getResult(LinearConstantPropagation.ID);
+    }
+
+    /**
+     * @return values of the variables before the last statement
+     * of given method of the main class, indexed by their names.
+     */
+    private static Map<String, String> getValuesAtEnd(
+            IDEResult<Stmt, Var, Value> result, String method) {
+        JMethod m = World.get().getMainMethod()
+                .getDeclaringClass()
+                .getDeclaredMethods()
+                .stream()
+                .filter(jm -> jm.getName().equals(method))
+                .findFirst()
+                .orElseThrow();
+        IR ir = m.getIR();
+        Map<String, String> values = new TreeMap<>();
+        result.getValuesAt(ir.getStmt(ir.getStmts().size() - 1))
+                .forEach((v, value) -> values.put(v.getName(), value.toString()));
+        return values;
+    }
+
+    @Test
+    public void testLinear() {
+        IDEResult<Stmt, Var, Value> result = solve("Linear");
+        Map<String, String> main = getValuesAtEnd(result, "main");
+        // the summary of inc, i.e., x + 1, is applied to each call site,
+        // though x is NAC in inc, as inc is called with 6 and 7
+        Assert.assertEquals("6", main.get("a"));
+        Assert.assertEquals("7", main.get("b"));
+        Assert.assertEquals("8", main.get("c"));
+        // a * b is not linear
+        Assert.assertEquals("NAC", main.get("d"));
+        Assert.assertEquals("15", main.get("e"));
+        Assert.assertEquals("NAC", getValuesAtEnd(result, "inc").get("x"));
+        Assert.assertEquals("8", getValuesAtEnd(result, "twice").get("x"));
+    }
+}
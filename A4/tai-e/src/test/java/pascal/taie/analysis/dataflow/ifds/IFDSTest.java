@@ -0,0 +1,96 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.ifds;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.analysis.graph.icfg.ICFGBuilder;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.Set;
+import java.util.TreeSet;
+
+public class IFDSTest {
+
+    private static final String CLASS_PATH = "src/test/resources/dataflow/constprop/inter";
+
+    /**
+     * Builds the ICFG of given program, and solves {@link TaintedLocals}
+     * with given source on it.
+     */
+    private static IFDSResult<Stmt, Var> solve(String main, int source) {
+        Main.main(new String[]{
+                "-pp", "-cp", CLASS_PATH, "-m", main,
+                "-a", "cg=algorithm:cha", "-a", "icfg" });
+        ICFG<JMethod, Stmt> icfg = World.get().getResult(ICFGBuilder.ID);
+        return new IFDSSolver<>(new TaintedLocals(source), icfg).solve();
+    }
+
+    /**
+     * @return names of the tainted variables before the statement
+     * of given index in given method of the main class.
+     */
+    private static Set<String> getTaintedAt(IFDSResult<Stmt, Var> result,
+                                            String method, int index) {
+        JMethod m = World.get().getMainMethod()
+                .getDeclaringClass()
+                .getDeclaredMethods()
+                .stream()
+                .filter(jm -> jm.getName().equals(method))
+                .findFirst()
+                .orElseThrow();
+        Set<String> names = new TreeSet<>();
+        result.getFactsAt(m.getIR().getStmt(index))
+                .forEach(v -> names.add(v.getName()));
+        return names;
+    }
+
+    @Test
+    public void testExample() {
+        // a = 6 is the source, and b is redefined by ten()
+        IFDSResult<Stmt, Var> result = solve("Example", 6);
+        Assert.assertEquals(Set.of("x"), getTaintedAt(result, "addOne", 0));
+        Assert.assertEquals(Set.of("a", "b", "temp$1"),
+                getTaintedAt(result, "main", 3));
+        Assert.assertEquals(Set.of("a", "c", "temp$1"),
+                getTaintedAt(result, "main", 8));
+        Assert.assertEquals(Set.of(), getTaintedAt(result, "ten", 0));
+    }
+
+    @Test
+    public void testMultiIntArgs() {
+        // a = 2 and x = 2 are the sources; foo(x, y) returns a tainted
+        // value, while foo(r, s) does not, as the summaries of foo
+        // are computed separately for the facts entering it
+        IFDSResult<Stmt, Var> result = solve("MultiIntArgs", 2);
+        Assert.assertEquals(Set.of("temp$1", "x"), getTaintedAt(result, "goo", 1));
+        Assert.assertEquals(Set.of("temp$0", "x"), getTaintedAt(result, "foo", 1));
+        Assert.assertEquals(Set.of("a", "c", "temp$0", "temp$1", "x", "z"),
+                getTaintedAt(result, "main", 12));
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.ifds;
+
+import pascal.taie.analysis.graph.icfg.CallEdge;
+import pascal.taie.analysis.graph.icfg.CallToReturnEdge;
+import pascal.taie.analysis.graph.icfg.NormalEdge;
+import pascal.taie.analysis.graph.icfg.ReturnEdge;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.AssignLiteral;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.util.collection.Sets;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A small IFDS problem for testing, which finds the local variables that
+ * may hold values computed from a given integer literal (the source).
+ * The taint flows via assignments, from arguments to parameters, and
+ * from returned variables to the results of call sites.
+ */
+class TaintedLocals implements IFDSProblem<Stmt, Var> {
+
+    private static final Var ZERO = new Var(null, "<zero>", null, -1);
+
+    private final int source;
+
+    TaintedLocals(int source) {
+        this.source = source;
+    }
+
+    @Override
+    public Var zeroValue() {
+        return ZERO;
+    }
+
+    @Override
+    public FlowFunction<Var> getNormalFlowFunction(NormalEdge<Stmt> edge) {
+        Stmt stmt = edge.getSource();
+        Var def = stmt.getDef().orElse(null) instanceof Var var ? var : null;
+        return d -> {
+            if (d == ZERO) {
+                return isSource(stmt) ? Set.of(ZERO, def) : Set.of(ZERO);
+            }
+            if (def == null) {
+                return Set.of(d);
+            }
+            Set<Var> result = Sets.newHybridSet();
+            if (d != def) {
+                // the definition of another variable
+                result.add(d);
+            }
+            if (stmt.getUses().contains(d)) {
+                result.add(def);
+            }
+            return result;
+        };
+    }
+
+    @Override
+    public FlowFunction<Var> getCallToReturnFlowFunction(CallToReturnEdge<Stmt> edge) {
+        Var result = ((Invoke) edge.getSource()).getResult();
+        // the result is defined by the callees
+        return d -> d == result ? Set.of() : Set.of(d);
+    }
+
+    @Override
+    public FlowFunction<Var> getCallFlowFunction(CallEdge<Stmt> edge) {
+        List<Var> args = ((Invoke) edge.getSource()).getInvokeExp().getArgs();
+        IR calleeIR = edge.getCallee().getIR();
+        return d -> {
+            if (d == ZERO) {
+                return Set.of(ZERO);
+            }
+            Set<Var> params = Sets.newHybridSet();
+            for (int i = 0; i < args.size(); ++i) {
+                if (args.get(i) == d) {
+                    params.add(calleeIR.getParam(i));
+                }
+            }
+            return params;
+        };
+    }
+
+    @Override
+    public FlowFunction<Var> getReturnFlowFunction(ReturnEdge<Stmt> edge) {
+        Var result = ((Invoke) edge.getCallSite()).getResult();
+        return d -> {
+            if (d == ZERO) {
+                return Set.of(ZERO);
+            }
+            return result != null && edge.getReturnVars().contains(d)
+                    ? Set.of(result) : Set.of();
+        };
+    }
+
+    private boolean isSource(Stmt stmt) {
+        return stmt instanceof AssignLiteral assign
+                && assign.getRValue() instanceof IntLiteral literal
+                && literal.getValue() == source;
+    }
+}
@@ -23,14 +23,78 @@
 package pascal.taie.analysis.graph.callgraph.cha;
 
 import org.junit.Test;
+import pascal.taie.Main;
 import pascal.taie.analysis.Tests;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
 public class CHATest {
     
     protected static void test(String main) {
         Tests.test(main, "src/test/resources/cha/", "cg", "algorithm:cha");
     }
 
+    protected static void testWithHierarchyIndex(String main) {
+        Tests.test(main, "src/test/resources/cha/", "cg",
+                "algorithm:cha;hierarchy-index:true");
+    }
+
+    /**
+     * Tests the call graph converted to {@link
+     * pascal.taie.analysis.graph.callgraph.CSRCallGraph}.
+     */
+    protected static void testFrozen(String main) {
+        Tests.test(main, "src/test/resources/cha/", "cg",
+                "algorithm:cha;freeze:true");
+    }
+
+    protected static void testInParallel(String main) {
+        Tests.test(main, "src/test/resources/cha/", "cg",
+                "algorithm:cha;parallel:true");
+    }
+
+    /**
+     * Saves the call graph of given program, and then loads it
+     * with given options.
+     */
+    protected static void testSaveAndLoad(String main, String loadOpts)
+            throws IOException {
+        Path file = Files.createTempFile(main, ".cg");
+        try {
+            Tests.test(main, "src/test/resources/cha/", "cg",
+                    "algorithm:cha;save:" + file);
+            Tests.test(main, "src/test/resources/cha/", "cg",
+                    "algorithm:cha;load:" + file + loadOpts);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Saves the call graph of the previous version of given program,
+     * and then updates it for the current version where given classes
+     * have changed. The result must be the same as building the call
+     * graph of the current version from scratch.
+     */
+    protected static void testIncremental(String main, String changedClasses)
+            throws IOException {
+        Path file = Files.createTempFile(main, ".cg");
+        try {
+            Main.main(new String[]{
+                    "-pp", "-cp", "src/test/resources/cha-incremental/v1",
+                    "-m", main, "-a", "cg=algorithm:cha;save:" + file });
+            Tests.test(main, "src/test/resources/cha-incremental/v2", "cg",
+                    "algorithm:cha");
+            Tests.test(main, "src/test/resources/cha-incremental/v2", "cg",
+                    "algorithm:cha;load:" + file +
+                            ";changed-classes:[" + changedClasses + "]");
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
     @Test
     public void testStaticCall() {
         test("StaticCall");
@@ -50,4 +114,53 @@ public class CHATest {
     public void testAbstractMethod() {
         test("AbstractMethod");
     }
+
+    @Test
+    public void testVirtualCallWithHierarchyIndex() {
+        testWithHierarchyIndex("VirtualCall");
+    }
+
+    @Test
+    public void testInterfaceWithHierarchyIndex() {
+        testWithHierarchyIndex("Interface");
+    }
+
+    @Test
+    public void testVirtualCallInParallel() {
+        testInParallel("VirtualCall");
+    }
+
+    @Test
+    public void testAbstractMethodInParallel() {
+        testInParallel("AbstractMethod");
+    }
+
+    @Test
+    public void testVirtualCallFrozen() {
+        testFrozen("VirtualCall");
+    }
+
+    @Test
+    public void testInterfaceFrozen() {
+        testFrozen("Interface");
+    }
+
+    @Test
+    public void testInterfaceSaveAndLoad() throws IOException {
+        testSaveAndLoad("Interface", "");
+    }
+
+    @Test
+    public void testIncrementalOverrideInSuperclass() throws IOException {
+        // A now overrides the method which B inherited from Base
+        testIncremental("Incremental", "A");
+    }
+
+    @Test
+    public void testIncrementalOverrideInUnrelatedSuperclass() throws IOException {
+        // Middle now overrides the method which Leaf inherited from Root,
+        // and the call on interface Speaker is dispatched on Leaf,
+        // although Speaker and Middle are not subtypes of each other
+        testIncremental("IncrementalInterface", "Middle");
+    }
 }
@@ -0,0 +1,66 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph.xta;
+
+import org.junit.Test;
+import pascal.taie.analysis.Tests;
+
+public class XTATest {
+
+    protected static void test(String main) {
+        Tests.test(main, "src/test/resources/xta/", "cg", "algorithm:xta");
+    }
+
+    /**
+     * Tests the programs whose call graphs built by XTA
+     * are the same as the ones built by RTA.
+     */
+    protected static void testAsRTA(String main) {
+        Tests.test(main, "src/test/resources/rta/", "cg", "algorithm:xta");
+    }
+
+    @Test
+    public void testSeparate() {
+        test("Separate");
+    }
+
+    @Test
+    public void testVirtualCall() {
+        testAsRTA("VirtualCall");
+    }
+
+    @Test
+    public void testStringConstant() {
+        testAsRTA("StringConstant");
+    }
+
+    @Test
+    public void testClassConstant() {
+        testAsRTA("ClassConstant");
+    }
+
+    @Test
+    public void testCaughtException() {
+        testAsRTA("CaughtException");
+    }
+}
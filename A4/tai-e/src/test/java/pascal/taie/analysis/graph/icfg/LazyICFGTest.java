@@ -0,0 +1,59 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.icfg;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.callgraph.CallGraphBuilder;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+
+public class LazyICFGTest {
+
+    private static final String CLASS_PATH = "src/test/resources/dataflow/constprop/inter";
+
+    @Test
+    public void testUntouchedMethodsHaveNoSlices() {
+        // builds the call graph only, so that no CFGs are built up front
+        Main.main(new String[]{
+                "-pp", "-cp", CLASS_PATH, "-m", "ManyCallers",
+                "-a", "cg=algorithm:cha"});
+        CallGraph<Stmt, JMethod> callGraph = World.get().getResult(CallGraphBuilder.ID);
+        LazyICFG icfg = new LazyICFG(callGraph);
+        JMethod main = World.get().getMainMethod();
+        icfg.getNodesOf(main).forEach(icfg::getOutEdgesOf);
+        Assert.assertTrue(icfg.hasSlice(main));
+        callGraph.reachableMethods()
+                .filter(m -> !m.equals(main))
+                .forEach(m -> Assert.assertFalse(
+                        "slice of " + m, icfg.hasSlice(m)));
+        // id is called only by the callees of main,
+        // so touching main does not build its CFG
+        JMethod id = main.getDeclaringClass().getDeclaredMethod("id");
+        Assert.assertNull(id.getIR().getResult(CFGBuilder.ID));
+    }
+}
@@ -0,0 +1,20 @@
+public class Incremental {
+
+    public static void main(String[] args) {
+        B b = new B();
+        b.m();
+    }
+}
+
+class Base {
+    void m() {
+    }
+}
+
+class A extends Base {
+    void n() {
+    }
+}
+
+class B extends A {
+}
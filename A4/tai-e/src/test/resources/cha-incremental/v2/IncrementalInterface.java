@@ -0,0 +1,24 @@
+public class IncrementalInterface {
+
+    public static void main(String[] args) {
+        Speaker s = new Leaf();
+        s.m();
+    }
+}
+
+interface Speaker {
+    void m();
+}
+
+class Root {
+    public void m() {
+    }
+}
+
+class Middle extends Root {
+    public void m() {
+    }
+}
+
+class Leaf extends Middle implements Speaker {
+}
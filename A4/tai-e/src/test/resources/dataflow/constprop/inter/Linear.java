@@ -0,0 +1,18 @@
+public class Linear {
+
+    public static void main(String[] args) {
+        int a = 6;
+        int b = inc(a);
+        int c = inc(b);
+        int d = a * b;
+        int e = twice(c) - 1;
+    }
+
+    static int inc(int x) {
+        return x + 1;
+    }
+
+    static int twice(int x) {
+        return x * 2;
+    }
+}
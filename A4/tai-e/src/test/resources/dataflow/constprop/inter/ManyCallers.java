@@ -0,0 +1,32 @@
+public class ManyCallers {
+
+    public static void main(String[] args) {
+        int a = one();
+        int b = two();
+        int c = three();
+        int d = add(a, b);
+        int e = add(c, 3);
+    }
+
+    static int one() {
+        return id(1);
+    }
+
+    static int two() {
+        return id(2);
+    }
+
+    static int three() {
+        int x = id(1);
+        int y = id(2);
+        return add(x, y);
+    }
+
+    static int id(int x) {
+        return x;
+    }
+
+    static int add(int x, int y) {
+        return x + y;
+    }
+}
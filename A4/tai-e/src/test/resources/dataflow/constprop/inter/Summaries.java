@@ -0,0 +1,18 @@
+public class Summaries {
+
+    public static void main(String[] args) {
+        int a = inc(1);
+        int c = q();
+    }
+
+    static int q() {
+        // inc(1) has been solved when q is entered,
+        // so this call is answered by the summary of inc
+        int b = inc(1);
+        return b;
+    }
+
+    static int inc(int x) {
+        return x + 1;
+    }
+}
@@ -0,0 +1,23 @@
+public class CaughtException {
+
+    public static void main(String[] args) {
+        try {
+            fail();
+        } catch (Failure e) {
+            report(e);
+        }
+    }
+
+    static void fail() throws Failure {
+    }
+
+    static void report(Failure e) {
+        e.report();
+    }
+}
+
+class Failure extends Exception {
+
+    void report() {
+    }
+}
@@ -0,0 +1,10 @@
+public class ClassConstant {
+
+    public static void main(String[] args) {
+        classOf(ClassConstant.class);
+    }
+
+    static void classOf(Object o) {
+        o.getClass();
+    }
+}
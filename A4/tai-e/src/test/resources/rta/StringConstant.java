@@ -0,0 +1,10 @@
+public class StringConstant {
+
+    public static void main(String[] args) {
+        lengthOf("literal");
+    }
+
+    static void lengthOf(CharSequence cs) {
+        cs.length();
+    }
+}
@@ -0,0 +1,34 @@
+public class Separate {
+
+    public static void main(String[] args) {
+        useDog();
+        useCat();
+    }
+
+    static void useDog() {
+        Animal a = new Dog();
+        a.speak();
+    }
+
+    static void useCat() {
+        Animal a = new Cat();
+        a.speak();
+    }
+}
+
+abstract class Animal {
+
+    abstract void speak();
+}
+
+class Dog extends Animal {
+
+    void speak() {
+    }
+}
+
+class Cat extends Animal {
+
+    void speak() {
+    }
+}
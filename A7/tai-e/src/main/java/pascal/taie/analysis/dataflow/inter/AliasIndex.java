@@ -0,0 +1,225 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.exp.FieldAccess;
+import pascal.taie.ir.exp.InstanceFieldAccess;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.FieldStmt;
+import pascal.taie.ir.stmt.LoadArray;
+import pascal.taie.ir.stmt.LoadField;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.StoreArray;
+import pascal.taie.ir.stmt.StoreField;
+import pascal.taie.language.classes.JField;
+import pascal.taie.util.collection.Maps;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Index of the may-alias relations between the loads and stores
+ * of fields and arrays, which is built once from the result of
+ * pointer analysis.
+ * <p>
+ * The loads and stores are bucketed by the abstract locations they access,
+ * i.e., (object, field) for instance fields, the field itself for static
+ * fields, and the array object for arrays, so building the index needs
+ * no pairwise intersection of points-to sets. The aliased stores of each
+ * load (and vice versa) are kept as sorted int arrays, thus the solver
+ * only scans the arrays when it looks up the aliases.
+ * <p>
+ * Only the loads and stores of int-like values are indexed. The indexes
+ * of array accesses are not considered here, as their values are known
+ * only during constant propagation.
+ */
+class AliasIndex {
+
+    private static final int[] EMPTY = new int[0];
+
+    private final List<Stmt> loads = new ArrayList<>();
+
+    private final List<Stmt> stores = new ArrayList<>();
+
+    /**
+     * Id of each load (resp. store), i.e., its position in
+     * {@link #loads} (resp. {@link #stores}).
+     */
+    private final Map<Stmt, Integer> ids = Maps.newMap();
+
+    /**
+     * Ids of the stores which may alias each load, indexed by load ids.
+     */
+    private int[][] storesOfLoad;
+
+    /**
+     * Ids of the loads which may alias each store, indexed by store ids.
+     */
+    private int[][] loadsOfStore;
+
+    private AliasIndex() {
+    }
+
+    /**
+     * Builds the alias index for the loads and stores in given statements.
+     */
+    static AliasIndex build(Iterable<Stmt> stmts, PointerAnalysisResult pta) {
+        AliasIndex index = new AliasIndex();
+        for (Stmt stmt : stmts) {
+            if (stmt instanceof LoadField load) {
+                index.addIfInt(load.getLValue(), load, index.loads);
+            } else if (stmt instanceof LoadArray load) {
+                index.addIfInt(load.getLValue(), load, index.loads);
+            } else if (stmt instanceof StoreField store) {
+                index.addIfInt(store.getRValue(), store, index.stores);
+            } else if (stmt instanceof StoreArray store) {
+                index.addIfInt(store.getRValue(), store, index.stores);
+            }
+        }
+        index.connect(pta);
+        return index;
+    }
+
+    private void addIfInt(Var var, Stmt stmt, List<Stmt> list) {
+        if (ConstantPropagation.canHoldInt(var)) {
+            ids.put(stmt, list.size());
+            list.add(stmt);
+        }
+    }
+
+    /**
+     * Computes {@link #storesOfLoad} and {@link #loadsOfStore}.
+     */
+    private void connect(PointerAnalysisResult pta) {
+        // buckets the stores by the locations they may write
+        Map<Object, List<Integer>> storesAt = Maps.newMap();
+        for (int s = 0; s < stores.size(); ++s) {
+            for (Object loc : getLocations(stores.get(s), pta)) {
+                storesAt.computeIfAbsent(loc, __ -> new ArrayList<>()).add(s);
+            }
+        }
+        storesOfLoad = new int[loads.size()][];
+        int[] counts = new int[stores.size()];
+        BitSet aliases = new BitSet(stores.size());
+        for (int l = 0; l < loads.size(); ++l) {
+            aliases.clear();
+            for (Object loc : getLocations(loads.get(l), pta)) {
+                List<Integer> ss = storesAt.get(loc);
+                if (ss != null) {
+                    ss.forEach(aliases::set);
+                }
+            }
+            int[] ss = aliases.isEmpty() ? EMPTY : aliases.stream().toArray();
+            for (int s : ss) {
+                ++counts[s];
+            }
+            storesOfLoad[l] = ss;
+        }
+        // inverts storesOfLoad, and the loads of each store are
+        // sorted as the load ids are visited in ascending order
+        loadsOfStore = new int[stores.size()][];
+        for (int s = 0; s < stores.size(); ++s) {
+            loadsOfStore[s] = counts[s] == 0 ? EMPTY : new int[counts[s]];
+            counts[s] = 0;
+        }
+        for (int l = 0; l < loads.size(); ++l) {
+            for (int s : storesOfLoad[l]) {
+                loadsOfStore[s][counts[s]++] = l;
+            }
+        }
+    }
+
+    /**
+     * @return the abstract locations which given load or store may access.
+     */
+    private static List<Object> getLocations(Stmt stmt, PointerAnalysisResult pta) {
+        List<Object> locations = new ArrayList<>();
+        if (stmt instanceof FieldStmt<?, ?> fieldStmt) {
+            JField field = fieldStmt.getFieldRef().resolveNullable();
+            if (field == null) {
+                return locations;
+            }
+            FieldAccess access = fieldStmt.getFieldAccess();
+            if (access instanceof InstanceFieldAccess instanceAccess) {
+                for (Obj obj : pta.getPointsToSet(instanceAccess.getBase())) {
+                    locations.add(new InstanceField(obj, field));
+                }
+            } else {
+                locations.add(field);
+            }
+        } else {
+            Var base = stmt instanceof LoadArray load
+                    ? load.getArrayAccess().getBase()
+                    : ((StoreArray) stmt).getArrayAccess().getBase();
+            for (Obj obj : pta.getPointsToSet(base)) {
+                locations.add(new ArrayIndex(obj));
+            }
+        }
+        return locations;
+    }
+
+    /**
+     * Applies given action to the stores which may write the location
+     * read by given load. Nothing is done if the load is not indexed.
+     */
+    void forEachStoreOf(Stmt load, Consumer<Stmt> action) {
+        Integer id = ids.get(load);
+        if (id != null) {
+            for (int s : storesOfLoad[id]) {
+                action.accept(stores.get(s));
+            }
+        }
+    }
+
+    /**
+     * Applies given action to the loads which may read the location
+     * written by given store. Nothing is done if the store is not indexed.
+     */
+    void forEachLoadOf(Stmt store, Consumer<Stmt> action) {
+        Integer id = ids.get(store);
+        if (id != null) {
+            for (int l : loadsOfStore[id]) {
+                action.accept(loads.get(l));
+            }
+        }
+    }
+
+    /**
+     * @return true if given load or store is indexed, otherwise false.
+     */
+    boolean contains(Stmt stmt) {
+        return ids.containsKey(stmt);
+    }
+
+    private record InstanceField(Obj base, JField field) {
+    }
+
+    private record ArrayIndex(Obj array) {
+    }
+}
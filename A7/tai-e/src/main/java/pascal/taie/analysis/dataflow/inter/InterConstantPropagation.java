@@ -25,7 +25,8 @@ package pascal.taie.analysis.dataflow.inter;
 import pascal.taie.World;
 import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
 import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
-import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.dataflow.analysis.constprop.Value;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.graph.cfg.CFGBuilder;
 import pascal.taie.analysis.graph.icfg.CallEdge;
 import pascal.taie.analysis.graph.icfg.CallToReturnEdge;
@@ -37,9 +38,15 @@ import pascal.taie.ir.IR;
 import pascal.taie.ir.exp.InvokeExp;
 import pascal.taie.ir.exp.Var;
 import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.LoadArray;
+import pascal.taie.ir.stmt.LoadField;
 import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.StoreArray;
+import pascal.taie.ir.stmt.StoreField;
 import pascal.taie.language.classes.JMethod;
 
+import java.util.List;
+
 /**
  * Implementation of interprocedural constant propagation for int values.
  */
@@ -50,6 +57,12 @@ public class InterConstantPropagation extends
 
     private final ConstantPropagation cp;
 
+    /**
+     * Index of the aliased loads and stores, which is null
+     * if the analysis is not alias-aware.
+     */
+    private AliasIndex aliasIndex;
+
     public InterConstantPropagation(AnalysisConfig config) {
         super(config);
         cp = new ConstantPropagation(new AnalysisConfig(ConstantPropagation.ID));
@@ -57,9 +70,11 @@ public class InterConstantPropagation extends
 
     @Override
     protected void initialize() {
-        String ptaId = getOptions().getString("pta");
-        PointerAnalysisResult pta = World.get().getResult(ptaId);
-        // You can do initialization work here
+        if (getOptions().getBoolean("alias-aware")) {
+            String ptaId = getOptions().getString("pta");
+            PointerAnalysisResult pta = World.get().getResult(ptaId);
+            aliasIndex = AliasIndex.build(icfg, pta);
+        }
     }
 
     @Override
@@ -85,37 +100,121 @@ public class InterConstantPropagation extends
 
     @Override
     protected boolean transferCallNode(Stmt stmt, CPFact in, CPFact out) {
-        // TODO - finish me
-        return false;
+        return out.copyFrom(in);
     }
 
     @Override
     protected boolean transferNonCallNode(Stmt stmt, CPFact in, CPFact out) {
-        // TODO - finish me
-        return false;
+        if (aliasIndex != null && aliasIndex.contains(stmt)) {
+            if (stmt instanceof LoadField || stmt instanceof LoadArray) {
+                return transferLoad(stmt, in, out);
+            } else {
+                // the stored value may flow to the aliased loads
+                // in any method, thus re-process them on change
+                boolean changed = out.copyFrom(in);
+                if (changed) {
+                    aliasIndex.forEachLoadOf(stmt, solver::addToWorkList);
+                }
+                return changed;
+            }
+        }
+        return cp.transferNode(stmt, in, out);
+    }
+
+    /**
+     * Transfer function for field and array loads: the loaded value
+     * is the meet of the values written by the aliased stores.
+     */
+    private boolean transferLoad(Stmt load, CPFact in, CPFact out) {
+        Var lhs;
+        Value index;
+        if (load instanceof LoadField loadField) {
+            lhs = loadField.getLValue();
+            index = null;
+        } else {
+            LoadArray loadArray = (LoadArray) load;
+            lhs = loadArray.getLValue();
+            index = in.get(loadArray.getArrayAccess().getIndex());
+        }
+        Value[] value = { Value.getUndef() };
+        DataflowResult<Stmt, CPFact> result = solver.getResult();
+        aliasIndex.forEachStoreOf(load, store -> {
+            CPFact storeIn = result.getInFact(store);
+            Var rhs;
+            if (store instanceof StoreField storeField) {
+                rhs = storeField.getRValue();
+            } else {
+                StoreArray storeArray = (StoreArray) store;
+                if (index == null || !mayAlias(index,
+                        storeIn.get(storeArray.getArrayAccess().getIndex()))) {
+                    return;
+                }
+                rhs = storeArray.getRValue();
+            }
+            value[0] = cp.meetValue(value[0], storeIn.get(rhs));
+        });
+        CPFact newOut = in.copy();
+        newOut.update(lhs, value[0]);
+        return out.copyFrom(newOut);
+    }
+
+    /**
+     * @return true if two array indexes may be the same, otherwise false.
+     */
+    private static boolean mayAlias(Value i1, Value i2) {
+        if (i1.isUndef() || i2.isUndef()) {
+            return false;
+        }
+        if (i1.isConstant() && i2.isConstant()) {
+            return i1.getConstant() == i2.getConstant();
+        }
+        return true;
     }
 
     @Override
     protected CPFact transferNormalEdge(NormalEdge<Stmt> edge, CPFact out) {
-        // TODO - finish me
-        return null;
+        return out;
     }
 
     @Override
     protected CPFact transferCallToReturnEdge(CallToReturnEdge<Stmt> edge, CPFact out) {
-        // TODO - finish me
-        return null;
+        // the value of the variable receiving the call result
+        // is given by the return edges
+        CPFact result = out.copy();
+        Var lhs = ((Invoke) edge.getSource()).getResult();
+        if (lhs != null) {
+            result.remove(lhs);
+        }
+        return result;
     }
 
     @Override
     protected CPFact transferCallEdge(CallEdge<Stmt> edge, CPFact callSiteOut) {
-        // TODO - finish me
-        return null;
+        // passes arguments to the parameters of callee
+        InvokeExp invokeExp = ((Invoke) edge.getSource()).getInvokeExp();
+        List<Var> params = edge.getCallee().getIR().getParams();
+        CPFact result = newInitialFact();
+        for (int i = 0; i < params.size(); ++i) {
+            Var param = params.get(i);
+            if (ConstantPropagation.canHoldInt(param)) {
+                result.update(param, callSiteOut.get(invokeExp.getArg(i)));
+            }
+        }
+        return result;
     }
 
     @Override
     protected CPFact transferReturnEdge(ReturnEdge<Stmt> edge, CPFact returnOut) {
-        // TODO - finish me
-        return null;
+        // passes return value to the variable receiving the call result
+        CPFact result = newInitialFact();
+        Var lhs = ((Invoke) edge.getCallSite()).getResult();
+        if (lhs != null && ConstantPropagation.canHoldInt(lhs)) {
+            Value value = Value.getUndef();
+            for (Var retVar : edge.getReturnVars()) {
+                value = cp.meetValue(value, returnOut.get(retVar));
+            }
+            result.update(lhs, value);
+        }
+        return result;
     }
 }
@@ -24,6 +24,7 @@ package pascal.taie.analysis.dataflow.inter;
 
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.analysis.graph.icfg.ICFGEdge;
 import pascal.taie.util.collection.SetQueue;
 
 import java.util.Queue;
@@ -45,6 +46,8 @@ class InterSolver<Method, Node, Fact> {
 
     private Queue<Node> workList;
 
+    private Set<Node> boundaries;
+
     InterSolver(InterDataflowAnalysis<Node, Fact> analysis,
                 ICFG<Method, Node> icfg) {
         this.analysis = analysis;
@@ -58,11 +61,51 @@ class InterSolver<Method, Node, Fact> {
         return result;
     }
 
+    /**
+     * @return the (partial) result of the solver, which can be queried
+     * by the analysis during solving.
+     */
+    DataflowResult<Node, Fact> getResult() {
+        return result;
+    }
+
+    /**
+     * Adds a node to the work-list, so that it will be processed again.
+     * This is used by the analysis when the facts of the node depend on
+     * the facts of other nodes that are not its predecessors.
+     */
+    void addToWorkList(Node node) {
+        workList.add(node);
+    }
+
     private void initialize() {
-        // TODO - finish me
+        boundaries = icfg.entryMethods()
+                .map(icfg::getEntryOf)
+                .collect(Collectors.toSet());
+        for (Node node : icfg) {
+            result.setInFact(node, analysis.newInitialFact());
+            result.setOutFact(node, boundaries.contains(node) ?
+                    analysis.newBoundaryFact(node) : analysis.newInitialFact());
+        }
+        workList = new SetQueue<>();
     }
 
     private void doSolve() {
-        // TODO - finish me
+        for (Node node : icfg) {
+            if (!boundaries.contains(node)) {
+                workList.add(node);
+            }
+        }
+        while (!workList.isEmpty()) {
+            Node node = workList.poll();
+            Fact in = result.getInFact(node);
+            for (ICFGEdge<Node> edge : icfg.getInEdgesOf(node)) {
+                analysis.meetInto(analysis.transferEdge(
+                        edge, result.getOutFact(edge.getSource())), in);
+            }
+            if (analysis.transferNode(node, in, result.getOutFact(node))) {
+                workList.addAll(icfg.getSuccsOf(node));
+            }
+        }
     }
 }
@@ -0,0 +1,174 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.Type;
+import pascal.taie.util.collection.Sets;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Tests {@link AliasIndex} over stub pointer analysis results,
+ * whose points-to sets are given by the tests.
+ */
+public class AliasIndexTest {
+
+    private static final String CLASS_PATH = "src/test/resources/dataflow/constprop/alias";
+
+    private static final Obj O1 = new StubObj("o1");
+
+    private static final Obj O2 = new StubObj("o2");
+
+    private static IR getMainIR(String main) {
+        Main.main(new String[]{
+                "-pp", "-cp", CLASS_PATH, "-m", main, "-a", "cfg" });
+        return World.get().getMainMethod().getIR();
+    }
+
+    /**
+     * @param pts points-to sets of the variables, given by their names.
+     *            The other variables point to nothing.
+     * @return a pointer analysis result which only answers
+     * {@link PointerAnalysisResult#getPointsToSet(Var)}.
+     */
+    private static PointerAnalysisResult newPTA(Map<String, Set<Obj>> pts) {
+        return (PointerAnalysisResult) Proxy.newProxyInstance(
+                AliasIndexTest.class.getClassLoader(),
+                new Class<?>[]{ PointerAnalysisResult.class },
+                (proxy, method, args) -> {
+                    if (method.getName().equals("getPointsToSet") &&
+                            args.length == 1 && args[0] instanceof Var var) {
+                        return pts.getOrDefault(var.getName(), Set.of());
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static Set<Stmt> storesOf(AliasIndex index, Stmt load) {
+        Set<Stmt> stores = Sets.newHybridSet();
+        index.forEachStoreOf(load, stores::add);
+        return stores;
+    }
+
+    private static Set<Stmt> loadsOf(AliasIndex index, Stmt store) {
+        Set<Stmt> loads = Sets.newHybridSet();
+        index.forEachLoadOf(store, loads::add);
+        return loads;
+    }
+
+    @Test
+    public void testInstanceFieldSeparate() {
+        IR ir = getMainIR("InstanceField");
+        AliasIndex index = AliasIndex.build(ir,
+                newPTA(Map.of("a1", Set.of(O1), "a2", Set.of(O2))));
+        // [4] a1.f = temp$1; [5] x = a1.f; [10] a2.f = temp$3; [11] y = a2.f;
+        Stmt store1 = ir.getStmt(4), load1 = ir.getStmt(5);
+        Stmt store2 = ir.getStmt(10), load2 = ir.getStmt(11);
+        Assert.assertEquals(Set.of(store1), storesOf(index, load1));
+        Assert.assertEquals(Set.of(store2), storesOf(index, load2));
+        Assert.assertEquals(Set.of(load1), loadsOf(index, store1));
+        Assert.assertEquals(Set.of(load2), loadsOf(index, store2));
+    }
+
+    @Test
+    public void testInstanceFieldAliased() {
+        IR ir = getMainIR("InstanceField");
+        AliasIndex index = AliasIndex.build(ir,
+                newPTA(Map.of("a1", Set.of(O1), "a2", Set.of(O1, O2))));
+        Stmt store1 = ir.getStmt(4), load1 = ir.getStmt(5);
+        Stmt store2 = ir.getStmt(10), load2 = ir.getStmt(11);
+        Assert.assertEquals(Set.of(store1, store2), storesOf(index, load1));
+        Assert.assertEquals(Set.of(store1, store2), storesOf(index, load2));
+        Assert.assertEquals(Set.of(load1, load2), loadsOf(index, store1));
+        Assert.assertEquals(Set.of(load1, load2), loadsOf(index, store2));
+        // statements other than loads and stores are not indexed
+        Assert.assertFalse(index.contains(ir.getStmt(3)));
+        Assert.assertEquals(Set.of(), storesOf(index, ir.getStmt(3)));
+    }
+
+    @Test
+    public void testArray() {
+        IR ir = getMainIR("Array");
+        // temp$0 (i.e., a1) and a2 point to different arrays
+        AliasIndex index = AliasIndex.build(ir, newPTA(Map.of(
+                "temp$0", Set.of(O1), "a1", Set.of(O1), "a2", Set.of(O2))));
+        // [18] x = a1[temp$2]; [22], [25], [28] a2[...] = ...;
+        // [30] y = a2[temp$13]; [32] z = a2[temp$15];
+        Stmt loadX = ir.getStmt(18), loadY = ir.getStmt(30), loadZ = ir.getStmt(32);
+        Set<Stmt> a1Stores = Set.of(ir.getStmt(4), ir.getStmt(6),
+                ir.getStmt(8), ir.getStmt(10), ir.getStmt(13), ir.getStmt(15));
+        Set<Stmt> a2Stores = Set.of(ir.getStmt(22), ir.getStmt(25), ir.getStmt(28));
+        Assert.assertEquals(a1Stores, storesOf(index, loadX));
+        // the indexes are not considered by the alias index
+        Assert.assertEquals(a2Stores, storesOf(index, loadY));
+        Assert.assertEquals(a2Stores, storesOf(index, loadZ));
+        Assert.assertEquals(Set.of(loadY, loadZ), loadsOf(index, ir.getStmt(25)));
+        Assert.assertEquals(Set.of(loadX), loadsOf(index, ir.getStmt(4)));
+    }
+
+    @Test
+    public void testNoPointsTo() {
+        IR ir = getMainIR("InstanceField");
+        AliasIndex index = AliasIndex.build(ir, newPTA(Map.of()));
+        // the loads and stores are indexed, but they alias nothing
+        Assert.assertTrue(index.contains(ir.getStmt(5)));
+        Assert.assertEquals(Set.of(), storesOf(index, ir.getStmt(5)));
+        Assert.assertEquals(Set.of(), loadsOf(index, ir.getStmt(4)));
+    }
+
+    private record StubObj(String name) implements Obj {
+
+        @Override
+        public Type getType() {
+            return null;
+        }
+
+        @Override
+        public Object getAllocation() {
+            return name;
+        }
+
+        @Override
+        public Optional<JMethod> getContainerMethod() {
+            return Optional.empty();
+        }
+
+        @Override
+        public Type getContainerType() {
+            return null;
+        }
+    }
+}